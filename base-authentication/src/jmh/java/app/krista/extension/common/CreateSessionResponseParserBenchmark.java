@@ -0,0 +1,107 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the Gson round-trips {@link CreateSessionResponseParser} used to make with walking the materialized
+ * response and with streaming it from the raw body. Run with {@code gradle :base-authentication:jmh}; the
+ * {@code gc} profiler configured in the build reports allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateSessionResponseParserBenchmark {
+
+    private static final Gson GSON_JSON_MAPPER = new GsonBuilder().create();
+    private static final String RESPONSE = "{\"clientSessionId\":\"5b0c6f0e-2d5c-4f4e-9a53-0c4b8f1e7d21\","
+            + "\"kristaAccountId\":\"acc_8f14e45f\","
+            + "\"person\":{\"id\":\"per_1\",\"name\":\"Jane Doe\",\"icon\":{\"uri\":\"https://cdn.krista.app/i/1.png\","
+            + "\"width\":64,\"height\":64},\"emails\":[\"jane.doe@kristasoft.com\"],\"timeZone\":\"UTC\"},"
+            + "\"account\":{\"personId\":{\"id\":\"per_1\"},\"name\":\"Jane Doe\",\"localId\":{\"id\":\"loc_42\"},"
+            + "\"roles\":[{\"id\":\"role_1\",\"name\":\"Krista User\"},{\"id\":\"role_2\",\"name\":\"Reviewer\"},"
+            + "{\"id\":\"role_3\",\"name\":\"Approver\"}],\"inboxId\":{\"id\":\"inb_7\"},\"isWorkspaceAdmin\":false,"
+            + "\"isApplianceManager\":false,\"preferences\":{\"theme\":\"dark\",\"language\":\"en\","
+            + "\"notifications\":{\"email\":true,\"push\":false}},\"createdAt\":1767225600000},"
+            + "\"capabilities\":[\"chat\",\"documents\",\"workflows\",\"catalogs\"]}";
+
+    private final CreateSessionResponseParser parser = new CreateSessionResponseParser();
+    private final byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+    @SuppressWarnings("unchecked")
+    private final Map<String, Object> response = GSON_JSON_MAPPER.fromJson(RESPONSE, Map.class);
+
+    @Benchmark
+    public AuthenticationResponse gsonRoundTrip() {
+        return parseWithRoundTrips(response, "jane.doe@kristasoft.com", "extra");
+    }
+
+    @Benchmark
+    public AuthenticationResponse mapWalk() {
+        return parser.parse(response, "jane.doe@kristasoft.com", "extra");
+    }
+
+    @Benchmark
+    public AuthenticationResponse gsonRoundTripFromBody() {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> parsed = GSON_JSON_MAPPER.fromJson(new String(body, StandardCharsets.UTF_8), Map.class);
+        return parseWithRoundTrips(parsed, "jane.doe@kristasoft.com", "extra");
+    }
+
+    @Benchmark
+    public AuthenticationResponse streamFromBody() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body), "jane.doe@kristasoft.com", "extra");
+    }
+
+    /**
+     * The previous implementation, without its validation.
+     */
+    private static AuthenticationResponse parseWithRoundTrips(Map<String, Object> createResponse, String email,
+            String extraResponse) {
+        Map<?, ?> accountMap =
+                GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(createResponse.get("account")), Map.class);
+        List<String> roles = new ArrayList<>();
+        for (Object object : (List<?>) accountMap.get("roles")) {
+            roles.add((String) GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(object), Map.class).get("id"));
+        }
+        Map<?, ?> personMap =
+                GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(createResponse.get("person")), Map.class);
+        String iconUrl = personMap.get("icon") == null ? "" : (String) ((Map<?, ?>) personMap.get("icon")).get("uri");
+        return new AuthenticationResponse((String) createResponse.get("clientSessionId"),
+                (String) accountMap.get("name"), iconUrl, (String) ((Map<?, ?>) accountMap.get("localId")).get("id"),
+                (String) createResponse.get("kristaAccountId"),
+                (String) ((Map<?, ?>) accountMap.get("personId")).get("id"), roles,
+                (String) ((Map<?, ?>) accountMap.get("inboxId")).get("id"),
+                (Boolean) accountMap.get("isWorkspaceAdmin"), (Boolean) accountMap.get("isApplianceManager"),
+                Map.of("email", email), Map.of("auth", extraResponse));
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares {@link EmailValidator} with the regular expressions it replaced, both compiled per call as
+ * {@link CommonUtils} used to and precompiled. Run with {@code gradle :base-authentication:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidatorBenchmark {
+
+    private static final String EMAIL_REGEX =
+            "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$";
+    private static final String DOMAIN_REGEX = "^((?!-)[A-Za-z0-9-]{1,63}(?<!-)\\.)+[A-Za-z]{2,6}";
+    private static final Pattern EMAIL = Pattern.compile(EMAIL_REGEX);
+    private static final Pattern DOMAIN = Pattern.compile(DOMAIN_REGEX);
+
+    private final String email = "jane.doe+demo@mail.kristasoft.com";
+    private final String domain = "mail.kristasoft.com";
+
+    @Benchmark
+    public boolean emailRegexCompiledPerCall() {
+        return Pattern.compile(EMAIL_REGEX).matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean emailRegex() {
+        return EMAIL.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean emailValidator() {
+        return EmailValidator.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean domainRegexCompiledPerCall() {
+        return Pattern.compile(DOMAIN_REGEX).matcher(domain).matches();
+    }
+
+    @Benchmark
+    public boolean domainRegex() {
+        return DOMAIN.matcher(domain).matches();
+    }
+
+    @Benchmark
+    public boolean domainValidator() {
+        return EmailValidator.isValidDomain(domain);
+    }
+
+}
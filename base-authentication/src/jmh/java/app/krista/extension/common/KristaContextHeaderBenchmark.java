@@ -0,0 +1,58 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the {@link KristaContextHeader} scanner with the URL-decode and pretty-printing Gson path that
+ * {@link ClientSessionUtil} used before. Run with {@code gradle :base-authentication:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KristaContextHeaderBenchmark {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final String header = "%7B%22clientSessionId%22%3A%22clientSession_0b6cbb3e-64a4-4c1b-9d0f-1f3b1d9e0a52%22%7D";
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object gson() {
+        Map<String, ?> map = (Map<String, ?>) GSON.fromJson(URLDecoder.decode(header, StandardCharsets.UTF_8),
+                Map.class);
+        return map.get("clientSessionId");
+    }
+
+    @Benchmark
+    public String scanner() {
+        return KristaContextHeader.getClientSessionId(header);
+    }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import app.krista.model.field.util.GsonJsonMapper;
+
+/**
+ * Writes an {@link AuthenticationResponse} as UTF-8 JSON straight to a stream, without reflection or an
+ * intermediate String.
+ * <p>
+ * The output is byte for byte what {@link GsonJsonMapper} produces: fields in declaration order, {@code null}
+ * fields and map values left out, and {@code < > & = '}, control characters, U+2028 and U+2029 escaped. Field
+ * names are encoded once. Extras values other than strings, booleans, boxed integers and floating point numbers,
+ * maps and collections are handed to {@link GsonJsonMapper}.
+ */
+public final class AuthenticationResponseEncoder {
+
+    private static final byte[] CLIENT_SESSION_ID = name("clientSessionId");
+    private static final byte[] NAME = name("name");
+    private static final byte[] AVATAR_URL = name("avatarUrl");
+    private static final byte[] ACCOUNT_ID = name("accountId");
+    private static final byte[] KRISTA_ACCOUNT_ID = name("kristaAccountId");
+    private static final byte[] PERSON_ID = name("personId");
+    private static final byte[] ROLES = name("roles");
+    private static final byte[] INBOX_ID = name("inboxId");
+    private static final byte[] IS_WORKSPACE_ADMIN = name("isWorkspaceAdmin");
+    private static final byte[] IS_APPLIANCE_MANAGER = name("isApplianceManager");
+    private static final byte[] IDENTIFICATION_TOKEN = name("identificationToken");
+    private static final byte[] EXTRAS = name("extras");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private AuthenticationResponseEncoder() {
+    }
+
+    public static void write(AuthenticationResponse response, OutputStream output) throws IOException {
+        Buffer buffer = new Buffer();
+        encode(response, buffer);
+        output.write(buffer.bytes, 0, buffer.size);
+    }
+
+    public static byte[] encode(AuthenticationResponse response) {
+        Buffer buffer = new Buffer();
+        encode(response, buffer);
+        return Arrays.copyOf(buffer.bytes, buffer.size);
+    }
+
+    private static void encode(AuthenticationResponse response, Buffer buffer) {
+        buffer.write('{');
+        int fields = 0;
+        fields = string(buffer, fields, CLIENT_SESSION_ID, response.getClientSessionId());
+        fields = string(buffer, fields, NAME, response.getName());
+        fields = string(buffer, fields, AVATAR_URL, response.getAvatarUrl());
+        fields = string(buffer, fields, ACCOUNT_ID, response.getAccountId());
+        fields = string(buffer, fields, KRISTA_ACCOUNT_ID, response.getKristaAccountId());
+        fields = string(buffer, fields, PERSON_ID, response.getPersonId());
+        fields = value(buffer, fields, ROLES, response.getRoles());
+        fields = string(buffer, fields, INBOX_ID, response.getInboxId());
+        fields = value(buffer, fields, IS_WORKSPACE_ADMIN, response.isWorkspaceAdmin());
+        fields = value(buffer, fields, IS_APPLIANCE_MANAGER, response.isApplianceManager());
+        fields = value(buffer, fields, IDENTIFICATION_TOKEN, response.getIdentificationToken());
+        value(buffer, fields, EXTRAS, response.getExtras());
+        buffer.write('}');
+    }
+
+    private static int string(Buffer buffer, int fields, byte[] name, String value) {
+        if (value == null) {
+            return fields;
+        }
+        if (fields > 0) {
+            buffer.write(',');
+        }
+        buffer.write(name);
+        writeString(buffer, value);
+        return fields + 1;
+    }
+
+    private static int value(Buffer buffer, int fields, byte[] name, Object value) {
+        if (value == null) {
+            return fields;
+        }
+        if (fields > 0) {
+            buffer.write(',');
+        }
+        buffer.write(name);
+        writeValue(buffer, value);
+        return fields + 1;
+    }
+
+    private static void writeValue(Buffer buffer, Object value) {
+        if (value == null) {
+            buffer.write(NULL);
+        } else if (value instanceof String) {
+            writeString(buffer, (String) value);
+        } else if (value instanceof Boolean) {
+            buffer.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            buffer.writeAscii(value.toString());
+        } else if ((value instanceof Double && Double.isFinite((Double) value))
+                || (value instanceof Float && Float.isFinite((Float) value))) {
+            buffer.writeAscii(value.toString());
+        } else if (value instanceof Map) {
+            writeMap(buffer, (Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            writeCollection(buffer, (Collection<?>) value);
+        } else {
+            // Rare shapes (and non-finite numbers, which Gson rejects) keep the mapper's exact behaviour.
+            writeUtf8(buffer, GsonHolder.GSON_JSON_MAPPER.toString(value), false);
+        }
+    }
+
+    private static void writeMap(Buffer buffer, Map<?, ?> map) {
+        buffer.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (!first) {
+                buffer.write(',');
+            }
+            first = false;
+            writeString(buffer, String.valueOf(entry.getKey()));
+            buffer.write(':');
+            writeValue(buffer, entry.getValue());
+        }
+        buffer.write('}');
+    }
+
+    private static void writeCollection(Buffer buffer, Collection<?> values) {
+        buffer.write('[');
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                buffer.write(',');
+            }
+            first = false;
+            writeValue(buffer, value);
+        }
+        buffer.write(']');
+    }
+
+    private static void writeString(Buffer buffer, String value) {
+        buffer.write('"');
+        writeUtf8(buffer, value, true);
+        buffer.write('"');
+    }
+
+    private static void writeUtf8(Buffer buffer, String value, boolean escape) {
+        int length = value.length();
+        buffer.ensure(length + 16);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (escape) {
+                    writeEscaped(buffer, c);
+                } else {
+                    buffer.write(c);
+                }
+            } else if (c < 0x800) {
+                buffer.write(0xc0 | (c >> 6));
+                buffer.write(0x80 | (c & 0x3f));
+            } else if (escape && (c == '\u2028' || c == '\u2029')) {
+                writeUnicodeEscape(buffer, c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.write(0xf0 | (codePoint >> 18));
+                buffer.write(0x80 | ((codePoint >> 12) & 0x3f));
+                buffer.write(0x80 | ((codePoint >> 6) & 0x3f));
+                buffer.write(0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: replaced the way the JDK UTF-8 encoder replaces it.
+                buffer.write('?');
+            } else {
+                buffer.write(0xe0 | (c >> 12));
+                buffer.write(0x80 | ((c >> 6) & 0x3f));
+                buffer.write(0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    private static void writeEscaped(Buffer buffer, char c) {
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer.write('\\');
+                buffer.write(c);
+                break;
+            case '\t':
+                buffer.write('\\');
+                buffer.write('t');
+                break;
+            case '\b':
+                buffer.write('\\');
+                buffer.write('b');
+                break;
+            case '\n':
+                buffer.write('\\');
+                buffer.write('n');
+                break;
+            case '\r':
+                buffer.write('\\');
+                buffer.write('r');
+                break;
+            case '\f':
+                buffer.write('\\');
+                buffer.write('f');
+                break;
+            case '<':
+            case '>':
+            case '&':
+            case '=':
+            case '\'':
+                writeUnicodeEscape(buffer, c);
+                break;
+            default:
+                if (c < 0x20) {
+                    writeUnicodeEscape(buffer, c);
+                } else {
+                    buffer.write(c);
+                }
+        }
+    }
+
+    private static void writeUnicodeEscape(Buffer buffer, char c) {
+        buffer.write('\\');
+        buffer.write('u');
+        buffer.write(HEX[(c >> 12) & 0xf]);
+        buffer.write(HEX[(c >> 8) & 0xf]);
+        buffer.write(HEX[(c >> 4) & 0xf]);
+        buffer.write(HEX[c & 0xf]);
+    }
+
+    private static byte[] name(String name) {
+        return ascii('"' + name + "\":");
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Buffer {
+
+        private byte[] bytes = new byte[512];
+        private int size;
+
+        private void ensure(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+
+        private void write(int b) {
+            if (size == bytes.length) {
+                ensure(1);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        private void write(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        private void writeAscii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[size++] = (byte) value.charAt(i);
+            }
+        }
+
+    }
+
+    private static final class GsonHolder {
+
+        private static final GsonJsonMapper GSON_JSON_MAPPER = GsonJsonMapper.create();
+
+    }
+
+}
@@ -22,35 +22,92 @@ import app.krista.extension.authorization.AuthorizationException;
 import app.krista.extension.request.ProtoRequest;
 import app.krista.extension.request.protos.http.HttpRequest;
 import app.krista.ksdk.authentication.SessionManager;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
+import java.time.Duration;
 import java.util.concurrent.ExecutionException;
 
 public class ClientSessionUtil {
 
-    private final static Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private final static SessionCache SESSION_CACHE = new SessionCache(
+            Integer.getInteger("krista.authentication.sessionCache.maximumSize", SessionCache.DEFAULT_MAXIMUM_SIZE),
+            Duration.ofSeconds(Long.getLong("krista.authentication.sessionCache.timeToLiveSeconds",
+                    SessionCache.DEFAULT_TIME_TO_LIVE.toSeconds())));
+    private final static RevokedSessionFilter REVOKED_SESSIONS = new RevokedSessionFilter(
+            Integer.getInteger("krista.authentication.revokedSessions.expectedInsertions",
+                    RevokedSessionFilter.DEFAULT_EXPECTED_INSERTIONS),
+            Double.parseDouble(System.getProperty("krista.authentication.revokedSessions.falsePositiveProbability",
+                    String.valueOf(RevokedSessionFilter.DEFAULT_FALSE_POSITIVE_PROBABILITY))),
+            Integer.getInteger("krista.authentication.revokedSessions.negativeCache.maximumSize",
+                    RevokedSessionFilter.DEFAULT_NEGATIVE_MAXIMUM_SIZE),
+            Duration.ofSeconds(Long.getLong("krista.authentication.revokedSessions.negativeCache.timeToLiveSeconds",
+                    RevokedSessionFilter.DEFAULT_NEGATIVE_TIME_TO_LIVE.toSeconds())));
+    private final static SingleFlight<String, String> SESSION_LOOKUPS = new SingleFlight<>();
 
-    @SuppressWarnings({"unchecked", "deprecation"})
+    @SuppressWarnings("deprecation")
     public static String getAuthenticatedAccountId(SessionManager sessionManager, ProtoRequest request)
             throws AuthorizationException, ExecutionException, InterruptedException {
         if (sessionManager == null || !(request instanceof HttpRequest)) {
             return null;
         }
-        String requestCtx = ((HttpRequest) (request)).getHeaders().get("X-Krista-Context");
-        if (requestCtx == null) {
+        String requestCtx = ((HttpRequest) (request)).getHeaders().get(KristaContextHeader.HEADER_NAME);
+        String clientSessionId = KristaContextHeader.getClientSessionId(requestCtx);
+        if (clientSessionId == null) {
             return null;
         }
-        Map<String, ?> map =
-                (Map<String, ?>) GSON.fromJson(URLDecoder.decode(requestCtx, StandardCharsets.UTF_8), Map.class);
-        Object clientSessionId = map.get("clientSessionId");
-        if (clientSessionId == null) {
+        return lookupAccountId(sessionManager, clientSessionId);
+    }
+
+    public static void rememberSession(String clientSessionId, String accountId) {
+        SESSION_CACHE.put(clientSessionId, accountId);
+    }
+
+    public static void invalidateSession(String clientSessionId) {
+        REVOKED_SESSIONS.revoke(clientSessionId);
+        SESSION_CACHE.invalidate(clientSessionId);
+    }
+
+    public static SessionCache getSessionCache() {
+        return SESSION_CACHE;
+    }
+
+    public static RevokedSessionFilter getRevokedSessionFilter() {
+        return REVOKED_SESSIONS;
+    }
+
+    public static SingleFlight<String, String> getSessionLookups() {
+        return SESSION_LOOKUPS;
+    }
+
+    static String lookupAccountId(SessionManager sessionManager, String clientSessionId)
+            throws ExecutionException, InterruptedException {
+        String accountId = SESSION_CACHE.get(clientSessionId);
+        // A filter hit may be a false positive, so it is not a rejection: the platform confirms it below.
+        if (accountId != null && !REVOKED_SESSIONS.mightBeRevoked(clientSessionId)) {
+            return accountId;
+        }
+        if (REVOKED_SESSIONS.isRejected(clientSessionId)) {
             return null;
         }
-        return sessionManager.lookupAccountId((String) clientSessionId);
+        return SESSION_LOOKUPS.execute(clientSessionId, () -> lookupAndRemember(sessionManager, clientSessionId));
+    }
+
+    private static String lookupAndRemember(SessionManager sessionManager, String clientSessionId)
+            throws ExecutionException, InterruptedException {
+        String accountId = sessionManager.lookupAccountId(clientSessionId);
+        if (accountId == null) {
+            REVOKED_SESSIONS.rememberInvalid(clientSessionId);
+        } else {
+            SESSION_CACHE.put(clientSessionId, accountId);
+            // invalidateSession revokes before it invalidates, so a logout that landed while the lookup was in
+            // flight is visible here and the entry just put is taken out again.
+            if (REVOKED_SESSIONS.mightBeRevoked(clientSessionId)) {
+                SESSION_CACHE.invalidate(clientSessionId);
+                if (REVOKED_SESSIONS.isKnownInvalid(clientSessionId)) {
+                    return null;
+                }
+            }
+        }
+        return accountId;
     }
 
 }
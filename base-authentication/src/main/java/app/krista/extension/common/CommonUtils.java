@@ -18,11 +18,7 @@
 
 package app.krista.extension.common;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import app.krista.extension.authorization.AuthorizationException;
 import app.krista.ksdk.accounts.AccountManager;
 import app.krista.ksdk.authentication.AuthenticationSettings;
@@ -30,49 +26,18 @@ import app.krista.ksdk.authentication.AuthenticationSettings;
 public final class CommonUtils {
 
     public static boolean isValidDomain(String domainName) {
-
-        // If the string is empty
-        // return false
-        if (domainName == null || domainName.isEmpty()) {
-            return false;
-        }
-
-        // Regex to check valid domain name.
-        String regex = "^((?!-)[A-Za-z0-9-]"
-                + "{1,63}(?<!-)\\.)"
-                + "+[A-Za-z]{2,6}";
-
-        // Compile the ReGex
-        Pattern p
-                = Pattern.compile(regex);
-
-        // Pattern class contains matcher()
-        // method to find the matching
-        // between the given string and
-        // regular expression.
-        Matcher m = p.matcher(domainName);
-
-        // Return if the string
-        // matched the ReGex
-        return m.matches();
+        return EmailValidator.isValidDomain(domainName);
     }
 
+    /**
+     * Matches the email's domain exactly (or against {@code *.domain} wildcards) using a cached
+     * {@link DomainMatcher}; an empty list or {@code All} supports every domain.
+     */
     public static boolean isEmailDomainPresentInSupportedWorkspaceDomains(String email, String allDomains) {
         if (email == null || email.isBlank()) {
             return false;
         }
-        if (allDomains == null || allDomains.isEmpty() || allDomains.equalsIgnoreCase("All")) {
-            return true;
-        } else {
-            String[] splitDomains = allDomains.split(",");
-            String[] splitEmail = email.split("@");
-            for (String domain : splitDomains) {
-                if (domain.contains(splitEmail[1])) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return DomainMatcher.of(allDomains).matchesEmail(email);
     }
 
     public static void addSupportedDomainsToWorkspace(String email, List<String> supportedDomainsForWorkspace,
@@ -87,22 +52,11 @@ public final class CommonUtils {
     }
 
     public static String getDate() {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss Z");
-        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-        return dateFormat.format(Calendar.getInstance().getTime());
+        return Timestamps.system().now();
     }
 
     public static boolean isValidEmail(String email) {
-        //https://www.geeksforgeeks.org/check-email-address-valid-not-java/
-        if (email == null) {
-            return false;
-        }
-        String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\." +
-                "[a-zA-Z0-9_+&*-]+)*@" +
-                "(?:[a-zA-Z0-9-]+\\.)+[a-z" +
-                "A-Z]{2,7}$";
-        Pattern pat = Pattern.compile(emailRegex);
-        return pat.matcher(email).matches();
+        return EmailValidator.isValidEmail(email);
     }
 
     public static void validateDomains(Object supportedDomains) {
@@ -119,7 +73,8 @@ public final class CommonUtils {
         }
         for (String domain : domains) {
             String trimmedDomain = domain.trim();
-            if (!trimmedDomain.equalsIgnoreCase("all") && !CommonUtils.isValidDomain(trimmedDomain)) {
+            String wildcardSuffix = trimmedDomain.startsWith("*.") ? trimmedDomain.substring(2) : trimmedDomain;
+            if (!trimmedDomain.equalsIgnoreCase("all") && !CommonUtils.isValidDomain(wildcardSuffix)) {
                 throw new IllegalArgumentException("Invalid domain name:" + domain);
             }
         }
@@ -147,6 +102,14 @@ public final class CommonUtils {
     }
 
     public static void validateIfSupportedDomain(String email, String allDomains, Object supportedDomains) {
+        validateIfSupportedDomainIn(email, DomainMatcher.of(allDomains), supportedDomains);
+    }
+
+    /**
+     * Same check against workspace domains already compiled, for example by a {@link SupportedDomains.Snapshot}.
+     */
+    public static void validateIfSupportedDomainIn(String email, DomainMatcher workspaceDomains,
+            Object supportedDomains) {
         if (!isValidEmail(email)) {
             throw new IllegalArgumentException("Not valid email address: " + email);
         }
@@ -154,10 +117,7 @@ public final class CommonUtils {
             boolean isSupportedFromExtension = CommonUtils
                     .isEmailDomainPresentInSupportedWorkspaceDomains(email,
                             supportedDomains.toString());
-            boolean isSupportedFromWorkSpace =
-                    isEmailDomainPresentInSupportedWorkspaceDomains(email,
-                            allDomains);
-            if (!isSupportedFromExtension && !isSupportedFromWorkSpace) {
+            if (!isSupportedFromExtension && !workspaceDomains.matchesEmail(email)) {
                 throw new IllegalArgumentException(
                         "Domain " + email.substring(email.indexOf("@") + 1) + " is not supported.");
             }
@@ -0,0 +1,259 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.ws.rs.core.Response;
+
+/**
+ * Cross-origin policy for the extension's browser-facing endpoints, compiled once from a list of allowed origins.
+ * <p>
+ * Entries are origins such as {@code https://portal.example.com} or {@code http://localhost:8080}, compared
+ * case-insensitively with default ports ignored. A {@code *.} host such as {@code https://*.example.com} allows
+ * any subdomain, and an entry without a scheme allows both {@code http} and {@code https}. An empty list or a
+ * {@code *} entry allows every origin with {@code Access-Control-Allow-Origin: *}, which is the previous behaviour;
+ * otherwise the request origin is echoed when allowed and every response carries {@code Vary: Origin}. Invalid
+ * entries, such as one with a path, are skipped with a warning.
+ * <p>
+ * The header sets are built once per origin and shared. Preflight responses carry {@code Access-Control-Max-Age}
+ * from {@code krista.authentication.cors.maxAgeSeconds} (default 7200, the most Chromium honours), so browsers
+ * skip the preflight of repeated calls.
+ */
+public final class CorsPolicy {
+
+    public static final String ALLOWED_METHODS = "POST, GET, OPTIONS";
+    public static final String ALLOWED_HEADERS = "Content-Type";
+    public static final long MAX_AGE_SECONDS = Long.getLong("krista.authentication.cors.maxAgeSeconds", 7200);
+
+    private static final String ANY = "*";
+    private static final String WILDCARD_PREFIX = "*.";
+    private static final ExpiringCache<String, CorsPolicy> COMPILED = new ExpiringCache<>(64, Duration.ofHours(1));
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(CorsPolicy.class);
+
+    private final boolean allowsAnyOrigin;
+    private final Set<String> exactOrigins = new HashSet<>();
+    private final Map<String, DomainMatcher> wildcardHosts = new HashMap<>();
+    private final List<String> invalidOrigins = new ArrayList<>();
+    private final ExpiringCache<String, Headers> headersByOrigin = new ExpiringCache<>(1024, Duration.ofHours(1));
+    private final Headers anyOrigin = new Headers(ANY, false);
+    private final Headers denied = new Headers(null, true);
+
+    private CorsPolicy(Collection<String> origins) {
+        boolean any = true;
+        Map<String, List<String>> wildcards = new HashMap<>();
+        for (String origin : origins) {
+            String entry = origin == null ? "" : origin.trim().toLowerCase(Locale.ROOT);
+            while (entry.endsWith("/")) {
+                entry = entry.substring(0, entry.length() - 1);
+            }
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.equals(ANY)) {
+                any = true;
+                break;
+            }
+            any = false;
+            Origin parsed = Origin.parse(entry.contains("://") ? entry : ANY + "://" + entry);
+            if (parsed == null) {
+                invalidOrigins.add(origin.trim());
+                continue;
+            }
+            if (parsed.host.startsWith(WILDCARD_PREFIX)) {
+                wildcards.computeIfAbsent(parsed.scheme + "://" + parsed.port, key -> new ArrayList<>())
+                        .add(parsed.host);
+            } else {
+                exactOrigins.add(parsed.toString());
+            }
+        }
+        this.allowsAnyOrigin = any;
+        wildcards.forEach((key, hosts) -> wildcardHosts.put(key, DomainMatcher.compile(hosts)));
+        if (!invalidOrigins.isEmpty()) {
+            // Once per compiled list, as of() reuses the compiled policy.
+            LOGGER.log(ExtensionLogger.Level.WARN, "cors.invalidOrigins", "origins", invalidOrigins);
+        }
+    }
+
+    public static CorsPolicy compile(Collection<String> allowedOrigins) {
+        return new CorsPolicy(allowedOrigins);
+    }
+
+    /**
+     * Compiles a comma-separated list, reusing the policy compiled for the same list recently.
+     */
+    public static CorsPolicy of(String commaSeparatedOrigins) {
+        String key = commaSeparatedOrigins == null ? "" : commaSeparatedOrigins;
+        CorsPolicy policy = COMPILED.get(key);
+        if (policy == null) {
+            policy = new CorsPolicy(key.isBlank() ? List.of() : Arrays.asList(key.split(",", -1)));
+            COMPILED.put(key, policy);
+        }
+        return policy;
+    }
+
+    public boolean allowsAnyOrigin() {
+        return allowsAnyOrigin;
+    }
+
+    /**
+     * @return the entries that were skipped because they are not valid origins.
+     */
+    public List<String> getInvalidOrigins() {
+        return Collections.unmodifiableList(invalidOrigins);
+    }
+
+    public boolean isAllowed(String origin) {
+        return getHeaders(origin) != denied;
+    }
+
+    /**
+     * @return headers for an actual (non-preflight) response to a request from {@code origin}.
+     */
+    public Map<String, String> getResponseHeaders(String origin) {
+        return getHeaders(origin).response;
+    }
+
+    public Map<String, String> getPreflightHeaders(String origin) {
+        return getHeaders(origin).preflight;
+    }
+
+    public Response.ResponseBuilder apply(Response.ResponseBuilder builder, String origin) {
+        getResponseHeaders(origin).forEach(builder::header);
+        return builder;
+    }
+
+    public Response preflight(String origin) {
+        Response.ResponseBuilder builder = Response.ok();
+        getPreflightHeaders(origin).forEach(builder::header);
+        return builder.build();
+    }
+
+    private Headers getHeaders(String origin) {
+        if (allowsAnyOrigin) {
+            return anyOrigin;
+        }
+        if (origin == null) {
+            return denied;
+        }
+        Headers headers = headersByOrigin.get(origin);
+        if (headers == null) {
+            boolean allowed = matches(Origin.parse(origin.trim().toLowerCase(Locale.ROOT)));
+            headers = allowed ? new Headers(origin, true) : denied;
+            headersByOrigin.put(origin, headers);
+        }
+        return headers;
+    }
+
+    private boolean matches(Origin origin) {
+        if (origin == null || origin.host.startsWith(WILDCARD_PREFIX)) {
+            return false;
+        }
+        if (exactOrigins.contains(origin.toString())
+                || exactOrigins.contains(ANY + "://" + origin.host + origin.port)) {
+            return true;
+        }
+        DomainMatcher matcher = wildcardHosts.get(origin.scheme + "://" + origin.port);
+        if (matcher != null && matcher.matches(origin.host)) {
+            return true;
+        }
+        matcher = wildcardHosts.get(ANY + "://" + origin.port);
+        return matcher != null && matcher.matches(origin.host);
+    }
+
+    private static final class Headers {
+
+        private final Map<String, String> response;
+        private final Map<String, String> preflight;
+
+        private Headers(String allowOrigin, boolean varyByOrigin) {
+            Map<String, String> response = new LinkedHashMap<>();
+            if (allowOrigin != null) {
+                response.put("Access-Control-Allow-Origin", allowOrigin);
+            }
+            if (varyByOrigin) {
+                response.put("Vary", "Origin");
+            }
+            Map<String, String> preflight = new LinkedHashMap<>(response);
+            if (allowOrigin != null) {
+                preflight.put("Access-Control-Allow-Methods", ALLOWED_METHODS);
+                preflight.put("Access-Control-Allow-Headers", ALLOWED_HEADERS);
+                preflight.put("Access-Control-Max-Age", Long.toString(MAX_AGE_SECONDS));
+            }
+            this.response = Collections.unmodifiableMap(response);
+            this.preflight = Collections.unmodifiableMap(preflight);
+        }
+
+    }
+
+    /**
+     * A lower-cased {@code scheme://host[:port]} with the default port of {@code http} and {@code https} dropped.
+     */
+    private static final class Origin {
+
+        private final String scheme;
+        private final String host;
+        private final String port;
+
+        private Origin(String scheme, String host, String port) {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+        }
+
+        private static Origin parse(String origin) {
+            int separator = origin.indexOf("://");
+            if (separator <= 0 || origin.indexOf('/', separator + 3) >= 0) {
+                return null;
+            }
+            String scheme = origin.substring(0, separator);
+            String authority = origin.substring(separator + 3);
+            int portSeparator = authority.lastIndexOf(':');
+            if (portSeparator < authority.lastIndexOf(']')) {
+                portSeparator = -1;
+            }
+            String host = portSeparator < 0 ? authority : authority.substring(0, portSeparator);
+            String port = portSeparator < 0 ? "" : authority.substring(portSeparator);
+            if (host.isEmpty() || port.equals(":")) {
+                return null;
+            }
+            if ((scheme.equals("http") && port.equals(":80")) || (scheme.equals("https") && port.equals(":443"))) {
+                port = "";
+            }
+            return new Origin(scheme, host, port);
+        }
+
+        @Override
+        public String toString() {
+            return scheme + "://" + host + port;
+        }
+
+    }
+
+}
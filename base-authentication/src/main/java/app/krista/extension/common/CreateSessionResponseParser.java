@@ -18,29 +18,56 @@
 
 package app.krista.extension.common;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
 
+/**
+ * Builds an {@link AuthenticationResponse} from a create-session response.
+ * <p>
+ * {@link #parse(Map, String, String)} walks the already materialized maps and lists; only values that are not
+ * maps (typed objects) are converted through Gson. {@link #parse(InputStream, String, String)} reads the raw
+ * response with a streaming {@link JsonReader}, keeping just the fields an {@link AuthenticationResponse} needs
+ * and skipping everything else.
+ */
 public class CreateSessionResponseParser {
 
     private final static Gson GSON_JSON_MAPPER = new GsonBuilder().create();
+    private final static Projection RESPONSE = Projection.of(
+            "clientSessionId", Projection.ALL,
+            "kristaAccountId", Projection.ALL,
+            "person", Projection.of("icon", Projection.of("uri", Projection.ALL)),
+            "account", Projection.of(
+                    "personId", Projection.of("id", Projection.ALL),
+                    "name", Projection.ALL,
+                    "localId", Projection.of("id", Projection.ALL),
+                    "roles", Projection.of("id", Projection.ALL),
+                    "inboxId", Projection.of("id", Projection.ALL),
+                    "isWorkspaceAdmin", Projection.ALL,
+                    "isApplianceManager", Projection.ALL));
 
     public AuthenticationResponse parse(Map<String, Object> createResponse, String email, String extraResponse) {
         validateCreateResponse(createResponse);
         Object accountObj = createResponse.get("account");
         Object personObj = createResponse.get("person");
-        Map<?, ?> accountMap = GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(accountObj), Map.class);
+        Map<?, ?> accountMap = asMap(accountObj);
         validateAccount(accountMap);
         String clientSessionId = (String) createResponse.get("clientSessionId");
-        String personId = (String) ((Map<?, ?>) accountMap.get("personId")).get("id");
+        String personId = getId(accountMap.get("personId"));
         String name = (String) accountMap.get("name");
-        String accountId = (String) ((Map<?, ?>) accountMap.get("localId")).get("id");
+        String accountId = getId(accountMap.get("localId"));
         List<String> roles = getRoles(accountMap);
-        String inboxId = (String) ((Map<?, ?>) accountMap.get("inboxId")).get("id");
+        String inboxId = getId(accountMap.get("inboxId"));
         boolean isWorkspaceAdmin = (Boolean) accountMap.get("isWorkspaceAdmin");
         boolean isApplianceManager = (Boolean) accountMap.get("isApplianceManager");
         String iconUrl = getIconUrl(personObj);
@@ -50,6 +77,21 @@ public class CreateSessionResponseParser {
                 isWorkspaceAdmin, isApplianceManager, Map.of("email", email), Map.of("auth", extraResponse));
     }
 
+    /**
+     * Parses the raw create-session response body, which is read but not closed.
+     */
+    @SuppressWarnings("unchecked")
+    public AuthenticationResponse parse(InputStream createResponse, String email, String extraResponse)
+            throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(createResponse, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        Object response = read(reader, RESPONSE);
+        if (response != null && !(response instanceof Map)) {
+            throw new IllegalArgumentException("Create client session response is not an object.");
+        }
+        return parse((Map<String, Object>) response, email, extraResponse);
+    }
+
     private void validateAccount(Map<?, ?> accountMap) {
         if (accountMap == null || accountMap.isEmpty()) {
             throw new IllegalArgumentException("Account information is empty.");
@@ -84,20 +126,119 @@ public class CreateSessionResponseParser {
         List<?> roles = (List<?>) accountMap.get("roles");
         List<String> rolesString = new ArrayList<>();
         for (Object object : roles) {
-            Map<?, ?> roleMap = GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(object), Map.class);
-            Object id = roleMap.get("id");
-            rolesString.add((String) id);
+            rolesString.add(getId(object));
         }
         return rolesString;
     }
 
     private String getIconUrl(Object personObj) {
-        Map<?, ?> personMap = GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(personObj), Map.class);
+        Map<?, ?> personMap = asMap(personObj);
         String iconUrl = "";
         if (personMap != null) {
-            iconUrl = personMap.get("icon") == null ? "" : (String) ((Map<?, ?>) personMap.get("icon")).get("uri");
+            iconUrl = personMap.get("icon") == null ? "" : (String) asMap(personMap.get("icon")).get("uri");
         }
         return iconUrl;
     }
 
+    private static String getId(Object value) {
+        return (String) asMap(value).get("id");
+    }
+
+    private static Map<?, ?> asMap(Object value) {
+        if (value == null || value instanceof Map) {
+            return (Map<?, ?>) value;
+        }
+        return GSON_JSON_MAPPER.fromJson(GSON_JSON_MAPPER.toJson(value), Map.class);
+    }
+
+    private static Object read(JsonReader reader, Projection projection) throws IOException {
+        if (projection == Projection.ALL) {
+            return readValue(reader);
+        }
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> object = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    Projection field = projection.fields.get(name);
+                    if (field == null) {
+                        reader.skipValue();
+                    } else {
+                        object.put(name, read(reader, field));
+                    }
+                }
+                reader.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                List<Object> array = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.add(read(reader, projection));
+                }
+                reader.endArray();
+                return array;
+            default:
+                return readValue(reader);
+        }
+    }
+
+    /**
+     * Reads a whole value the way {@code Gson.fromJson(json, Map.class)} materializes it.
+     */
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    object.put(reader.nextName(), readValue(reader));
+                }
+                reader.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                List<Object> array = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.add(readValue(reader));
+                }
+                reader.endArray();
+                return array;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return reader.nextDouble();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new IllegalArgumentException("Unexpected JSON token " + reader.peek() + ".");
+        }
+    }
+
+    /**
+     * The fields to keep from a JSON object; fields of arrays apply to each element.
+     */
+    private static final class Projection {
+
+        private static final Projection ALL = new Projection(Map.of());
+
+        private final Map<String, Projection> fields;
+
+        private Projection(Map<String, Projection> fields) {
+            this.fields = fields;
+        }
+
+        private static Projection of(Object... namesAndProjections) {
+            Map<String, Projection> fields = new HashMap<>();
+            for (int i = 0; i + 1 < namesAndProjections.length; i += 2) {
+                fields.put((String) namesAndProjections[i], (Projection) namesAndProjections[i + 1]);
+            }
+            return new Projection(fields);
+        }
+
+    }
+
 }
@@ -0,0 +1,157 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches domains against a configured list of supported domains, compiled once.
+ * <p>
+ * Entries are trimmed and compared case-insensitively. {@code example.com} matches only {@code example.com};
+ * {@code *.example.com} matches any subdomain of it, such as {@code mail.example.com}, but not
+ * {@code example.com} itself. An empty list or an {@code all} entry matches every domain; blank entries are
+ * ignored. Exact entries live in a hash set and wildcards in a trie of reversed labels, so a lookup costs one pass
+ * over the domain.
+ */
+public final class DomainMatcher {
+
+    private static final String ALL = "all";
+    private static final String WILDCARD_PREFIX = "*.";
+    private static final ExpiringCache<String, DomainMatcher> COMPILED = new ExpiringCache<>(256, Duration.ofHours(1));
+
+    private final Set<String> exactDomains = new HashSet<>();
+    private final Node wildcards = new Node();
+    private final boolean matchesAll;
+
+    private DomainMatcher(Collection<String> domains) {
+        boolean all = false;
+        for (String domain : domains) {
+            String entry = domain == null ? "" : domain.trim().toLowerCase(Locale.ROOT);
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.equals(ALL)) {
+                exactDomains.clear();
+                all = true;
+                break;
+            }
+            if (entry.startsWith(WILDCARD_PREFIX) && entry.length() > WILDCARD_PREFIX.length()) {
+                addWildcard(entry.substring(WILDCARD_PREFIX.length()));
+            } else {
+                exactDomains.add(entry);
+            }
+        }
+        this.matchesAll = all || domains.isEmpty();
+    }
+
+    public static DomainMatcher compile(Collection<String> domains) {
+        return new DomainMatcher(domains);
+    }
+
+    /**
+     * Compiles a comma-separated list, reusing the matcher compiled for the same list recently.
+     */
+    public static DomainMatcher of(String commaSeparatedDomains) {
+        String key = commaSeparatedDomains == null ? "" : commaSeparatedDomains;
+        DomainMatcher matcher = COMPILED.get(key);
+        if (matcher == null) {
+            matcher = new DomainMatcher(key.isEmpty() ? List.of() : Arrays.asList(key.split(",", -1)));
+            COMPILED.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    public boolean matchesAll() {
+        return matchesAll;
+    }
+
+    public boolean matchesEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        int at = email.indexOf('@');
+        return at >= 0 && matches(email.substring(at + 1));
+    }
+
+    public boolean matches(String domain) {
+        if (matchesAll) {
+            return true;
+        }
+        if (domain == null) {
+            return false;
+        }
+        String normalized = domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        if (exactDomains.contains(normalized)) {
+            return true;
+        }
+        // Walk labels from the right; a wildcard node matches when at least one label is left.
+        Node node = wildcards;
+        int end = normalized.length();
+        while (end > 0) {
+            int dot = normalized.lastIndexOf('.', end - 1);
+            node = node.children.get(normalized.substring(dot + 1, end));
+            if (node == null || dot < 0) {
+                return false;
+            }
+            if (node.wildcard && dot > 0) {
+                return true;
+            }
+            end = dot;
+        }
+        return false;
+    }
+
+    private void addWildcard(String suffix) {
+        Node node = wildcards;
+        int end = suffix.length();
+        while (end > 0) {
+            int dot = suffix.lastIndexOf('.', end - 1);
+            node = node.children.computeIfAbsent(suffix.substring(dot + 1, end), label -> new Node());
+            end = dot;
+        }
+        node.wildcard = true;
+    }
+
+    @Override
+    public String toString() {
+        return "DomainMatcher{" +
+                "matchesAll=" + matchesAll +
+                ", exactDomains=" + exactDomains +
+                '}';
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean wildcard;
+
+    }
+
+}
@@ -18,41 +18,33 @@
 
 package app.krista.extension.common;
 
-import java.util.regex.Pattern;
-
 public final class EmailAddresses {
 
     public static final String DEFAULT_DOMAIN = "kristasoft.com";
-    private static final Pattern EMAIL_ADDRESS_PATTERN =
-            Pattern.compile("^[a-z0-9_+&*-]+(?:\\.[a-z0-9_+&*-]+)*@(?:[a-z0-9-]+\\.)+[a-z]{2,7}$");
 
     private EmailAddresses() {
     }
 
     public static boolean isValidEmailAddress(String emailAddress) {
-        if (emailAddress == null || emailAddress.isBlank()) {
-            return false;
-        }
-        return EMAIL_ADDRESS_PATTERN.matcher(normalize(emailAddress)).matches();
-    }
-
-    private static String normalize(String emailAddress) {
-        return emailAddress.strip().toLowerCase();
+        return EmailValidator.scan(emailAddress) != EmailValidator.INVALID;
     }
 
     public static String normalizeEmailAddress(String emailAddress) {
-        if (!isValidEmailAddress(emailAddress)) {
+        long scan = EmailValidator.scan(emailAddress);
+        if (scan == EmailValidator.INVALID) {
             throw new IllegalArgumentException("Email address is not valid");
         }
-        return normalize(emailAddress);
+        return EmailValidator.normalize(emailAddress, scan);
     }
 
     public static String getDomainName(String emailAddress) {
-        return normalizeEmailAddress(emailAddress).split("@")[1];
+        String normalized = normalizeEmailAddress(emailAddress);
+        return normalized.substring(normalized.indexOf('@') + 1);
     }
 
     public static String getLocalPart(String emailAddress) {
-        return normalizeEmailAddress(emailAddress).split("@")[0];
+        String normalized = normalizeEmailAddress(emailAddress);
+        return normalized.substring(0, normalized.indexOf('@'));
     }
 
 }
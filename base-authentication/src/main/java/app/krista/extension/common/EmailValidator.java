@@ -0,0 +1,196 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+/**
+ * Single-pass email address and domain validation, replacing the regular expressions that used to be compiled on
+ * every call.
+ * <p>
+ * An email address is one or more dot-separated atoms of {@code [A-Za-z0-9_+&*-]}, an {@code @} and two or more
+ * dot-separated labels of {@code [A-Za-z0-9-]}, the last of which is 2 to 7 letters. A domain is one or more labels
+ * of 1 to 63 {@code [A-Za-z0-9-]} that neither start nor end with {@code -}, followed by a top-level label of 2 to 6
+ * letters. Only ASCII is accepted.
+ * <p>
+ * {@link #scan(CharSequence)} validates without allocating and returns the offsets of the address inside the
+ * input, so callers can slice or normalize it only when they need to.
+ */
+public final class EmailValidator {
+
+    public static final long INVALID = -1;
+
+    private static final int OFFSET_BITS = 21;
+    private static final int MAXIMUM_LENGTH = (1 << OFFSET_BITS) - 1;
+
+    private EmailValidator() {
+    }
+
+    public static boolean isValidEmail(CharSequence email) {
+        return email != null && scan(email, 0, email.length()) != INVALID;
+    }
+
+    /**
+     * Validates the address after ignoring leading and trailing whitespace, as {@link String#strip()} would.
+     *
+     * @return {@link #INVALID}, or the offsets of the local part start, the {@code @} and the end of the address,
+     * read with {@link #getLocalPartStart}, {@link #getAtIndex} and {@link #getEnd}.
+     */
+    public static long scan(CharSequence email) {
+        if (email == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = email.length();
+        while (start < end && Character.isWhitespace(email.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(email.charAt(end - 1))) {
+            end--;
+        }
+        return scan(email, start, end);
+    }
+
+    public static int getLocalPartStart(long scan) {
+        return (int) (scan >>> (2 * OFFSET_BITS));
+    }
+
+    public static int getAtIndex(long scan) {
+        return (int) ((scan >>> OFFSET_BITS) & MAXIMUM_LENGTH);
+    }
+
+    public static int getEnd(long scan) {
+        return (int) (scan & MAXIMUM_LENGTH);
+    }
+
+    /**
+     * @return the scanned address, stripped and lower-cased; {@code email} itself when it already is.
+     */
+    public static String normalize(String email, long scan) {
+        int start = getLocalPartStart(scan);
+        int end = getEnd(scan);
+        int upper = start;
+        while (upper < end && !isUpperCase(email.charAt(upper))) {
+            upper++;
+        }
+        if (upper == end) {
+            return start == 0 && end == email.length() ? email : email.substring(start, end);
+        }
+        char[] normalized = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            normalized[i - start] = isUpperCase(c) ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(normalized);
+    }
+
+    public static boolean isValidDomain(CharSequence domain) {
+        if (domain == null || domain.length() == 0) {
+            return false;
+        }
+        int end = domain.length();
+        int labels = 0;
+        int labelStart = 0;
+        for (int i = 0; i < end; i++) {
+            char c = domain.charAt(i);
+            if (c == '.') {
+                int length = i - labelStart;
+                if (length < 1 || length > 63 || domain.charAt(labelStart) == '-' || domain.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labels++;
+                labelStart = i + 1;
+            } else if (!isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        int topLevelLength = end - labelStart;
+        if (labels == 0 || topLevelLength < 2 || topLevelLength > 6) {
+            return false;
+        }
+        for (int i = labelStart; i < end; i++) {
+            if (!isLetter(domain.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long scan(CharSequence email, int start, int end) {
+        if (end > MAXIMUM_LENGTH) {
+            return INVALID;
+        }
+        // Local part: atoms separated by single dots.
+        int i = start;
+        boolean inAtom = false;
+        for (; i < end; i++) {
+            char c = email.charAt(i);
+            if (isLetterOrDigit(c) || c == '_' || c == '+' || c == '&' || c == '*' || c == '-') {
+                inAtom = true;
+            } else if (c == '.' && inAtom) {
+                inAtom = false;
+            } else {
+                break;
+            }
+        }
+        if (!inAtom || i == end || email.charAt(i) != '@') {
+            return INVALID;
+        }
+        int at = i++;
+        // Domain: at least two labels, the last made of 2 to 7 letters.
+        int labels = 0;
+        int labelStart = i;
+        boolean lettersOnly = true;
+        for (; i < end; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (i == labelStart) {
+                    return INVALID;
+                }
+                labels++;
+                labelStart = i + 1;
+                lettersOnly = true;
+            } else if (isDigit(c) || c == '-') {
+                lettersOnly = false;
+            } else if (!isLetter(c)) {
+                return INVALID;
+            }
+        }
+        int topLevelLength = end - labelStart;
+        if (labels == 0 || !lettersOnly || topLevelLength < 2 || topLevelLength > 7) {
+            return INVALID;
+        }
+        return ((long) start << (2 * OFFSET_BITS)) | ((long) at << OFFSET_BITS) | end;
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || isUpperCase(c);
+    }
+
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
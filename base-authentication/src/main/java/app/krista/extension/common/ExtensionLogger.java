@@ -0,0 +1,347 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured, asynchronous logger for the authentication extensions.
+ * <p>
+ * Events carry a type and key/value fields and are rendered as one logfmt line each, for example
+ * {@code 2026-01-15T10:00:00Z level=DEBUG logger=ExtensionRequestAuthenticator event=authenticate path=/login}.
+ * A disabled level is a single volatile read. Enabled events pass a per-event-type sampler ({@code 1} in
+ * {@code n}) and are then handed to a bounded lock-free ring buffer drained by one daemon thread, so request
+ * threads never contend on {@link System#out}; when the buffer is full events are dropped and counted.
+ * <p>
+ * The level comes from {@code krista.authentication.log.level} (default {@code INFO}) and the sampling rate of an
+ * event type from {@code krista.authentication.log.sampleRate.<event>} (default every event). Callers building
+ * expensive fields should guard with {@link #isEnabled(Level)}.
+ */
+public final class ExtensionLogger {
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final int BUFFER_CAPACITY = Integer.highestOneBit(
+            Math.max(2, Integer.getInteger("krista.authentication.log.bufferSize", 8192)));
+    private static final RingBuffer BUFFER = new RingBuffer(BUFFER_CAPACITY, System.out, true);
+    private static final Map<String, Sampler> SAMPLERS = new ConcurrentHashMap<>();
+    private static volatile Level level = parseLevel(System.getProperty("krista.authentication.log.level"));
+
+    private final String name;
+    private final RingBuffer buffer;
+
+    ExtensionLogger(String name, RingBuffer buffer) {
+        this.name = name;
+        this.buffer = buffer;
+    }
+
+    public static ExtensionLogger getLogger(Class<?> type) {
+        return new ExtensionLogger(type.getSimpleName(), BUFFER);
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel == null ? Level.INFO : newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Logs one in {@code oneIn} events of the given type; {@code 1} logs every event.
+     */
+    public static void setSampleRate(String event, int oneIn) {
+        SAMPLERS.put(event, new Sampler(Math.max(1, oneIn)));
+    }
+
+    public static long getDroppedCount() {
+        return BUFFER.getDroppedCount();
+    }
+
+    /**
+     * Writes every buffered event on the calling thread.
+     */
+    public static void flush() {
+        BUFFER.drain();
+    }
+
+    /**
+     * Short, stable fingerprint for identifiers such as account ids, so log lines can be correlated without
+     * carrying the identifier itself.
+     */
+    public static String hash(String value) {
+        if (value == null) {
+            return null;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString((hash ^ (hash >>> 32)) & 0xffffffffL);
+    }
+
+    public boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && eventLevel != Level.OFF;
+    }
+
+    public void log(Level eventLevel, String event) {
+        if (isEnabled(eventLevel) && isSampled(event)) {
+            publish(eventLevel, event, null, null);
+        }
+    }
+
+    public void log(Level eventLevel, String event, String key, Object value) {
+        if (isEnabled(eventLevel) && isSampled(event)) {
+            publish(eventLevel, event, null, new Object[]{key, value});
+        }
+    }
+
+    public void log(Level eventLevel, String event, String key1, Object value1, String key2, Object value2) {
+        if (isEnabled(eventLevel) && isSampled(event)) {
+            publish(eventLevel, event, null, new Object[]{key1, value1, key2, value2});
+        }
+    }
+
+    public void log(Level eventLevel, String event, String key1, Object value1, String key2, Object value2,
+            String key3, Object value3) {
+        if (isEnabled(eventLevel) && isSampled(event)) {
+            publish(eventLevel, event, null, new Object[]{key1, value1, key2, value2, key3, value3});
+        }
+    }
+
+    /**
+     * General form: {@code fields} holds alternating keys and values.
+     */
+    public void log(Level eventLevel, String event, Throwable error, Object... fields) {
+        if (isEnabled(eventLevel) && isSampled(event)) {
+            publish(eventLevel, event, error, fields);
+        }
+    }
+
+    private static boolean isSampled(String event) {
+        Sampler sampler = SAMPLERS.get(event);
+        if (sampler == null) {
+            sampler = SAMPLERS.computeIfAbsent(event, key ->
+                    new Sampler(Math.max(1, Integer.getInteger("krista.authentication.log.sampleRate." + key, 1))));
+        }
+        return sampler.sample();
+    }
+
+    private void publish(Level eventLevel, String event, Throwable error, Object[] fields) {
+        buffer.offer(new Record(System.currentTimeMillis(), eventLevel, name, event, error, fields));
+    }
+
+    private static Level parseLevel(String value) {
+        if (value == null || value.isBlank()) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException cause) {
+            return Level.INFO;
+        }
+    }
+
+    private static final class Sampler {
+
+        private final int oneIn;
+        private final AtomicLong counter = new AtomicLong();
+
+        private Sampler(int oneIn) {
+            this.oneIn = oneIn;
+        }
+
+        private boolean sample() {
+            return oneIn == 1 || counter.getAndIncrement() % oneIn == 0;
+        }
+
+    }
+
+    private static final class Record {
+
+        private final long timeMillis;
+        private final Level level;
+        private final String logger;
+        private final String event;
+        private final Throwable error;
+        private final Object[] fields;
+
+        private Record(long timeMillis, Level level, String logger, String event, Throwable error,
+                Object[] fields) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.logger = logger;
+            this.event = event;
+            this.error = error;
+            this.fields = fields;
+        }
+
+        private String render() {
+            StringBuilder line = new StringBuilder(128);
+            line.append(Instant.ofEpochMilli(timeMillis))
+                    .append(" level=").append(level)
+                    .append(" logger=").append(logger)
+                    .append(" event=").append(event);
+            if (fields != null) {
+                for (int i = 0; i + 1 < fields.length; i += 2) {
+                    line.append(' ').append(fields[i]).append('=');
+                    appendValue(line, fields[i + 1]);
+                }
+            }
+            if (error != null) {
+                line.append(" error=");
+                appendValue(line, error.getMessage() == null ? error.getClass().getName() : error.getMessage());
+                StringWriter stackTrace = new StringWriter();
+                error.printStackTrace(new PrintWriter(stackTrace));
+                line.append(System.lineSeparator()).append(stackTrace.toString().stripTrailing());
+            }
+            return line.toString();
+        }
+
+        private static void appendValue(StringBuilder line, Object value) {
+            String text = String.valueOf(value);
+            boolean quote = text.isEmpty();
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ' ' || c == '"' || c == '=' || c < 0x20;
+            }
+            if (!quote) {
+                line.append(text);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    line.append('\\').append(c);
+                } else if (c == '\n') {
+                    line.append("\\n");
+                } else if (c < 0x20) {
+                    line.append(' ');
+                } else {
+                    line.append(c);
+                }
+            }
+            line.append('"');
+        }
+
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring buffer drained by a daemon writer thread.
+     */
+    static final class RingBuffer implements Runnable {
+
+        private final AtomicReferenceArray<Record> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private final LongAdder dropped = new LongAdder();
+        private final PrintStream out;
+        private final Thread writer;
+        private volatile long head;
+        private volatile boolean parked;
+
+        /**
+         * @param capacity a power of two.
+         * @param startWriter whether a daemon thread drains the buffer; without it only {@link #drain()} writes.
+         */
+        RingBuffer(int capacity, PrintStream out, boolean startWriter) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+            this.out = out;
+            this.writer = startWriter ? new Thread(this, "krista-authentication-log-writer") : null;
+            if (writer != null) {
+                writer.setDaemon(true);
+                writer.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(this::drain, "krista-authentication-log-flush"));
+            }
+        }
+
+        long getDroppedCount() {
+            return dropped.sum();
+        }
+
+        private void offer(Record record) {
+            long claimed;
+            do {
+                claimed = tail.get();
+                if (claimed - head > mask) {
+                    dropped.increment();
+                    return;
+                }
+            } while (!tail.compareAndSet(claimed, claimed + 1));
+            slots.lazySet((int) (claimed & mask), record);
+            if (parked) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                if (!drain()) {
+                    parked = true;
+                    if (head == tail.get()) {
+                        LockSupport.parkNanos(this, 50_000_000L);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        synchronized boolean drain() {
+            boolean drained = false;
+            while (true) {
+                long position = head;
+                int index = (int) (position & mask);
+                Record record = slots.get(index);
+                if (record == null) {
+                    // Empty, or a producer has claimed the slot but not published yet.
+                    if (position == tail.get()) {
+                        return drained;
+                    }
+                    Thread.onSpinWait();
+                    continue;
+                }
+                slots.lazySet(index, null);
+                head = position + 1;
+                drained = true;
+                try {
+                    out.println(record.render());
+                } catch (RuntimeException ignored) {
+                    // Never let a broken record stop the writer.
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import com.google.gson.Gson;
+
+/**
+ * Reads the {@code clientSessionId} out of the percent-encoded {@code X-Krista-Context} header.
+ * <p>
+ * The header is what {@code authenticator.js} sends: {@code encodeURIComponent(JSON.stringify({clientSessionId}))}.
+ * That shape is scanned in a single pass, decoding escapes on the fly, and the id is returned as a substring of
+ * the header. Anything the scanner does not recognise (non-ASCII escapes, {@code +}, JSON escapes, nested values,
+ * lenient JSON) is handed to the full URL-decode and Gson path instead.
+ */
+public final class KristaContextHeader {
+
+    public static final String HEADER_NAME = "X-Krista-Context";
+    private static final String CLIENT_SESSION_ID = "clientSessionId";
+    private static final long END = -1;
+    private static final long UNSUPPORTED = -2;
+
+    private KristaContextHeader() {
+    }
+
+    public static String getClientSessionId(String header) {
+        if (header == null) {
+            return null;
+        }
+        long range = scan(header);
+        if (range == UNSUPPORTED) {
+            return parse(header);
+        }
+        return range == END ? null : header.substring((int) (range >>> 32), (int) range);
+    }
+
+    /**
+     * Full decode used before the scanner existed and kept as the fallback for unusual encodings.
+     */
+    @SuppressWarnings("unchecked")
+    public static String parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        Map<String, ?> map = (Map<String, ?>) GsonHolder.GSON.fromJson(
+                URLDecoder.decode(header, StandardCharsets.UTF_8), Map.class);
+        Object clientSessionId = map == null ? null : map.get(CLIENT_SESSION_ID);
+        return clientSessionId instanceof String ? (String) clientSessionId : null;
+    }
+
+    /**
+     * Scans the header for a plain string {@code clientSessionId} value.
+     *
+     * @return the raw start and end offsets of the value packed into the high and low halves, {@link #END} when
+     * the object has no such key, or {@link #UNSUPPORTED} when the fallback parser has to decide.
+     */
+    private static long scan(String header) {
+        int position = skipWhitespace(header, 0);
+        long next = next(header, position);
+        if (next < 0 || character(next) != '{') {
+            return UNSUPPORTED;
+        }
+        position = position(next);
+        while (true) {
+            position = skipWhitespace(header, position);
+            next = next(header, position);
+            if (next < 0) {
+                return UNSUPPORTED;
+            }
+            if (character(next) == '}') {
+                return END;
+            }
+            if (character(next) != '"') {
+                return UNSUPPORTED;
+            }
+            // Key: compare against "clientSessionId" while decoding.
+            position = position(next);
+            int matched = 0;
+            boolean matches = true;
+            while (true) {
+                next = next(header, position);
+                if (next < 0 || character(next) == '\\') {
+                    return UNSUPPORTED;
+                }
+                position = position(next);
+                char c = character(next);
+                if (c == '"') {
+                    break;
+                }
+                if (matches && matched < CLIENT_SESSION_ID.length() && CLIENT_SESSION_ID.charAt(matched) == c) {
+                    matched++;
+                } else {
+                    matches = false;
+                }
+            }
+            matches = matches && matched == CLIENT_SESSION_ID.length();
+            position = skipWhitespace(header, position);
+            next = next(header, position);
+            if (next < 0 || character(next) != ':') {
+                return UNSUPPORTED;
+            }
+            position = skipWhitespace(header, position(next));
+            next = next(header, position);
+            if (next < 0) {
+                return UNSUPPORTED;
+            }
+            char first = character(next);
+            if (first == '"') {
+                int start = position(next);
+                position = start;
+                boolean escaped = false;
+                while (true) {
+                    int end = position;
+                    next = next(header, position);
+                    if (next < 0 || character(next) == '\\') {
+                        return UNSUPPORTED;
+                    }
+                    position = position(next);
+                    if (character(next) == '"') {
+                        if (matches) {
+                            if (escaped) {
+                                return UNSUPPORTED;
+                            }
+                            return ((long) start << 32) | end;
+                        }
+                        break;
+                    }
+                    escaped |= position - end > 1;
+                }
+            } else if (matches || first == '{' || first == '[') {
+                return UNSUPPORTED;
+            } else {
+                // Literal (number, true, false, null) of some other key.
+                while (true) {
+                    next = next(header, position);
+                    if (next < 0) {
+                        return UNSUPPORTED;
+                    }
+                    char c = character(next);
+                    if (c == ',' || c == '}' || isWhitespace(c)) {
+                        break;
+                    }
+                    position = position(next);
+                }
+            }
+            position = skipWhitespace(header, position);
+            next = next(header, position);
+            if (next < 0) {
+                return UNSUPPORTED;
+            }
+            if (character(next) == '}') {
+                return END;
+            }
+            if (character(next) != ',') {
+                return UNSUPPORTED;
+            }
+            position = position(next);
+        }
+    }
+
+    private static int skipWhitespace(String header, int position) {
+        while (true) {
+            long next = next(header, position);
+            if (next < 0 || !isWhitespace(character(next))) {
+                return position;
+            }
+            position = position(next);
+        }
+    }
+
+    /**
+     * Decodes the character at {@code position}.
+     *
+     * @return the decoded character in the high half and the position after it in the low half, {@link #END} at
+     * the end of the header or {@link #UNSUPPORTED} for anything outside printable ASCII.
+     */
+    private static long next(String header, int position) {
+        if (position >= header.length()) {
+            return END;
+        }
+        char c = header.charAt(position);
+        if (c == '%') {
+            if (position + 2 >= header.length()) {
+                return UNSUPPORTED;
+            }
+            int high = Character.digit(header.charAt(position + 1), 16);
+            int low = Character.digit(header.charAt(position + 2), 16);
+            if (high < 0 || low < 0 || high > 7) {
+                return UNSUPPORTED;
+            }
+            return ((long) ((high << 4) | low) << 32) | (position + 3);
+        }
+        if (c == '+' || c < 0x20 || c > 0x7e) {
+            return UNSUPPORTED;
+        }
+        return ((long) c << 32) | (position + 1);
+    }
+
+    private static char character(long next) {
+        return (char) (next >>> 32);
+    }
+
+    private static int position(long next) {
+        return (int) next;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static final class GsonHolder {
+
+        private static final Gson GSON = new Gson();
+
+    }
+
+}
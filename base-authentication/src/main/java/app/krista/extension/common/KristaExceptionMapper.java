@@ -26,6 +26,8 @@ import javax.ws.rs.ext.ExceptionMapper;
 
 public class KristaExceptionMapper implements ExceptionMapper<Exception> {
 
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(KristaExceptionMapper.class);
+
     private final String extensionType;
 
     public KristaExceptionMapper(String extensionType) {
@@ -35,10 +37,10 @@ public class KristaExceptionMapper implements ExceptionMapper<Exception> {
     @Override
     public Response toResponse(Exception exception) {
         String message = exception.getMessage() == null ? "Authentication failure" : exception.getMessage();
-        exception.printStackTrace();
         int statusCode = 500;
         if (exception instanceof NotFoundException) {
             statusCode = 404;
+            LOGGER.log(ExtensionLogger.Level.DEBUG, "request.notFound", "message", message);
             return Response.status(statusCode).entity("Page not found.").build();
         }
         if (exception instanceof IllegalArgumentException) {
@@ -47,6 +49,11 @@ public class KristaExceptionMapper implements ExceptionMapper<Exception> {
         if (exception instanceof WebApplicationException) {
             statusCode = ((WebApplicationException) exception).getResponse().getStatus();
         }
+        if (statusCode >= 500) {
+            LOGGER.log(ExtensionLogger.Level.ERROR, "request.failed", exception, "status", statusCode);
+        } else {
+            LOGGER.log(ExtensionLogger.Level.WARN, "request.rejected", "status", statusCode, "message", message);
+        }
         return Response.status(statusCode).type(MediaType.APPLICATION_JSON)
                 .entity(new KristaError(message, extensionType + "- " + statusCode)).build();
     }
@@ -0,0 +1,139 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers client session ids that are known to be dead so they can be rejected without asking the platform.
+ * <p>
+ * Sessions deleted through logout go into a pair of rotating {@link BloomFilter} generations: a new generation is
+ * started once the current one holds {@code expectedInsertions} ids, so memory stays at two filters and old
+ * revocations age out. The filter only answers "never revoked" for certain: a cached session the filter has never
+ * seen is served without a platform call, while a hit, which may be a false positive, is confirmed by the platform.
+ * <p>
+ * Only exact knowledge rejects a session: ids the platform did not recognise and ids just revoked are kept in a
+ * short-lived negative cache of at most {@code negativeMaximumSize} entries. Memory is the two filters plus that
+ * cache.
+ */
+public class RevokedSessionFilter {
+
+    public static final int DEFAULT_EXPECTED_INSERTIONS = 100_000;
+    public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 1.0E-6;
+    public static final int DEFAULT_NEGATIVE_MAXIMUM_SIZE = 10_000;
+    public static final Duration DEFAULT_NEGATIVE_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    private static final String INVALID = "";
+
+    private final int expectedInsertions;
+    private final double falsePositiveProbability;
+    private final SessionCache invalidSessions;
+    private final LongAdder rejections = new LongAdder();
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    public RevokedSessionFilter() {
+        this(DEFAULT_EXPECTED_INSERTIONS, DEFAULT_FALSE_POSITIVE_PROBABILITY, DEFAULT_NEGATIVE_MAXIMUM_SIZE,
+                DEFAULT_NEGATIVE_TIME_TO_LIVE);
+    }
+
+    public RevokedSessionFilter(int expectedInsertions, double falsePositiveProbability,
+            int negativeMaximumSize, Duration negativeTimeToLive) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.current = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.previous = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.invalidSessions = new SessionCache(negativeMaximumSize, negativeTimeToLive);
+    }
+
+    public void revoke(String clientSessionId) {
+        if (clientSessionId == null) {
+            return;
+        }
+        BloomFilter filter = current;
+        if (filter.getInsertionCount() >= expectedInsertions) {
+            filter = rotate(filter);
+        }
+        filter.put(clientSessionId);
+        invalidSessions.put(clientSessionId, INVALID);
+    }
+
+    public void rememberInvalid(String clientSessionId) {
+        invalidSessions.put(clientSessionId, INVALID);
+    }
+
+    /**
+     * @return {@code false} when the session was certainly not revoked within the two generations; {@code true}
+     * when it may have been, which needs confirming before the session is rejected.
+     */
+    public boolean mightBeRevoked(String clientSessionId) {
+        return clientSessionId != null
+                && (current.mightContain(clientSessionId) || previous.mightContain(clientSessionId));
+    }
+
+    /**
+     * @return whether the session is known to be dead: revoked or unknown to the platform within the negative
+     * cache's time to live.
+     */
+    public boolean isKnownInvalid(String clientSessionId) {
+        return clientSessionId != null && invalidSessions.get(clientSessionId) != null;
+    }
+
+    public boolean isRejected(String clientSessionId) {
+        boolean rejected = isKnownInvalid(clientSessionId);
+        if (rejected) {
+            rejections.increment();
+        }
+        return rejected;
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return approximate memory held by the two filter generations, in bytes.
+     */
+    public long getFilterSizeInBytes() {
+        return (current.getBitSize() + previous.getBitSize()) / 8;
+    }
+
+    public SessionCache getInvalidSessions() {
+        return invalidSessions;
+    }
+
+    private synchronized BloomFilter rotate(BloomFilter full) {
+        if (current == full) {
+            previous = full;
+            current = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedSessionFilter{" +
+                "filterBytes=" + getFilterSizeInBytes() +
+                ", rejections=" + getRejectionCount() +
+                ", invalidSessions=" + invalidSessions +
+                '}';
+    }
+
+}
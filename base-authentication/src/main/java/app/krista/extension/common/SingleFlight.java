@@ -0,0 +1,141 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent calls for the same key into one execution whose result is shared by every caller.
+ * <p>
+ * The first caller for a key runs the call; callers arriving while it is in flight wait for its outcome. A failure
+ * is rethrown to every waiter. If the running caller is interrupted, its waiters are not failed with someone else's
+ * interruption: they retry and one of them runs the call instead. A waiter that is itself interrupted stops waiting
+ * and gets the {@link InterruptedException}, without affecting the call in flight.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Callable<V> call) throws ExecutionException, InterruptedException {
+        while (true) {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return run(key, flight, call);
+            }
+            coalesced.increment();
+            try {
+                return existing.get();
+            } catch (CancellationException abandoned) {
+                // The caller running the call was interrupted; try again.
+            } catch (ExecutionException cause) {
+                throw rethrow(cause);
+            }
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #execute}: returns the pending result for {@code key}, starting {@code call}
+     * only when nothing is in flight. Synchronous and asynchronous callers for the same key share one flight.
+     */
+    public CompletableFuture<V> executeAsync(K key, Function<K, CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        executions.increment();
+        CompletableFuture<V> started;
+        try {
+            started = call.apply(key);
+        } catch (RuntimeException | Error cause) {
+            started = CompletableFuture.failedFuture(cause);
+        }
+        started.whenComplete((value, cause) -> {
+            inFlight.remove(key, flight);
+            if (cause == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(cause instanceof CompletionException && cause.getCause() != null
+                        ? cause.getCause() : cause);
+            }
+        });
+        return flight;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private V run(K key, CompletableFuture<V> flight, Callable<V> call)
+            throws ExecutionException, InterruptedException {
+        executions.increment();
+        try {
+            V value = call.call();
+            flight.complete(value);
+            return value;
+        } catch (InterruptedException cause) {
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+            throw cause;
+        } catch (ExecutionException | RuntimeException | Error cause) {
+            flight.completeExceptionally(cause);
+            throw cause;
+        } catch (Exception cause) {
+            flight.completeExceptionally(cause);
+            throw new ExecutionException(cause);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static ExecutionException rethrow(ExecutionException failure) {
+        Throwable cause = failure.getCause();
+        if (cause instanceof ExecutionException) {
+            return (ExecutionException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return failure;
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.core.Response;
+
+/**
+ * A static resource held in memory together with its gzip encoding, served with a content-hash {@code ETag}.
+ * <p>
+ * {@link #respond(String, String)} answers a matching {@code If-None-Match} with {@code 304 Not Modified} and
+ * otherwise sends the gzip bytes when the client accepts them and they are smaller than the original. Both
+ * representations get their own strong {@code ETag}, and either one satisfies {@code If-None-Match}.
+ */
+public final class StaticAsset {
+
+    private static final String GZIP = "gzip";
+
+    private final String contentType;
+    private final String cacheControl;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String eTag;
+    private final String gzipETag;
+
+    private StaticAsset(String contentType, String cacheControl, byte[] identity, byte[] gzip) {
+        this.contentType = contentType;
+        this.cacheControl = cacheControl;
+        this.identity = identity;
+        this.gzip = gzip != null && gzip.length < identity.length ? gzip : null;
+        String hash = hash(identity);
+        this.eTag = '"' + hash + '"';
+        this.gzipETag = '"' + hash + "-gz\"";
+    }
+
+    public static StaticAsset of(String contentType, String cacheControl, byte[] content) {
+        return new StaticAsset(contentType, cacheControl, content.clone(), gzip(content));
+    }
+
+    /**
+     * Loads a classpath resource, using a precompressed {@code <name>.gz} next to it when there is one.
+     *
+     * @return the asset, or {@code null} when the resource does not exist.
+     */
+    public static StaticAsset load(ClassLoader classLoader, String name, String contentType, String cacheControl) {
+        byte[] content = read(classLoader, name);
+        if (content == null) {
+            return null;
+        }
+        byte[] precompressed = read(classLoader, name + ".gz");
+        return new StaticAsset(contentType, cacheControl, content,
+                precompressed == null ? gzip(content) : precompressed);
+    }
+
+    public Response respond(String ifNoneMatch, String acceptEncoding) {
+        boolean compressed = gzip != null && acceptsGzip(acceptEncoding);
+        Response.ResponseBuilder builder;
+        if (isNotModified(ifNoneMatch)) {
+            builder = Response.notModified();
+        } else {
+            builder = Response.ok(compressed ? gzip : identity, contentType);
+            if (compressed) {
+                builder.header("Content-Encoding", GZIP);
+            }
+        }
+        return builder
+                .header("ETag", compressed ? gzipETag : eTag)
+                .header("Cache-Control", cacheControl)
+                .header("Vary", "Accept-Encoding")
+                .build();
+    }
+
+    public boolean isNotModified(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals(gzipETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip, honouring {@code q=0} and the {@code *} wildcard.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String element : acceptEncoding.split(",")) {
+            int parameters = element.indexOf(';');
+            String coding = (parameters < 0 ? element : element.substring(0, parameters)).trim();
+            boolean accepted = parameters < 0 || !isZeroQuality(element.substring(parameters + 1));
+            if (coding.equalsIgnoreCase(GZIP) || coding.equalsIgnoreCase("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public int getSize() {
+        return identity.length;
+    }
+
+    /**
+     * @return size of the gzip encoding, or {@code -1} when it is not served because it would not be smaller.
+     */
+    public int getGzipSize() {
+        return gzip == null ? -1 : gzip.length;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim()) == 0;
+                } catch (NumberFormatException ignored) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] read(ClassLoader classLoader, String name) {
+        try (InputStream input = classLoader.getResourceAsStream(name)) {
+            return input == null ? null : input.readAllBytes();
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Could not read " + name + ".", cause);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 32);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(content);
+        } catch (IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException cause) {
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import app.krista.extension.authorization.AuthorizationException;
+import app.krista.ksdk.authentication.AuthenticationSettings;
+
+/**
+ * Supported domains of a workspace, read from {@link AuthenticationSettings} as an immutable snapshot.
+ * <p>
+ * The snapshot is reloaded every {@code krista.authentication.supportedDomains.refreshSeconds} (default 60).
+ * {@link #register} writes a domain the snapshot does not have yet with {@code addSupportedDomains} in the
+ * background, so logins do not wait on the settings write; concurrent logins from the same new domain share that
+ * one write. The domain joins the snapshot once the write succeeded. A failed write is logged and not remembered,
+ * so the next login from that domain tries again.
+ */
+public class SupportedDomains {
+
+    static final Duration REFRESH_INTERVAL =
+            Duration.ofSeconds(Long.getLong("krista.authentication.supportedDomains.refreshSeconds", 60));
+
+    private static final Map<String, SupportedDomains> WORKSPACES = new ConcurrentHashMap<>();
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(SupportedDomains.class);
+    private static final Executor WRITER =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("krista-supported-domains-", 0).factory());
+
+    private final long refreshIntervalNanos;
+    private final Executor writer;
+    private final SingleFlight<String, Boolean> registrations = new SingleFlight<>();
+    private volatile Snapshot snapshot;
+
+    SupportedDomains(Duration refreshInterval) {
+        this(refreshInterval, WRITER);
+    }
+
+    SupportedDomains(Duration refreshInterval, Executor writer) {
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.writer = writer;
+    }
+
+    public static SupportedDomains forWorkspace(String workspaceId) {
+        return WORKSPACES.computeIfAbsent(workspaceId == null ? "" : workspaceId,
+                key -> new SupportedDomains(REFRESH_INTERVAL));
+    }
+
+    public Snapshot getSnapshot(AuthenticationSettings authenticationSettings) throws AuthorizationException {
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.loadedAt > refreshIntervalNanos) {
+            current = refresh(authenticationSettings);
+        }
+        return current;
+    }
+
+    /**
+     * Adds {@code domain} to the workspace unless it already supports it, without waiting for the write.
+     *
+     * @return the pending write, shared by every caller registering the same domain meanwhile.
+     */
+    public CompletableFuture<Boolean> register(String domain, AuthenticationSettings authenticationSettings) {
+        String normalized = domain == null ? "" : domain.trim().toLowerCase(Locale.ROOT);
+        Snapshot current = snapshot;
+        if (normalized.isEmpty() || (current != null && current.contains(normalized))) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        return registrations.executeAsync(normalized, key -> CompletableFuture.supplyAsync(() -> {
+            Snapshot latest = snapshot;
+            if (latest != null && latest.contains(key)) {
+                return Boolean.FALSE;
+            }
+            try {
+                authenticationSettings.addSupportedDomains(key);
+            } catch (RuntimeException cause) {
+                LOGGER.log(ExtensionLogger.Level.WARN, "supportedDomains.registerFailed", cause, "domain", key);
+                throw cause;
+            }
+            added(key);
+            LOGGER.log(ExtensionLogger.Level.DEBUG, "supportedDomains.registered", "domain", key);
+            return Boolean.TRUE;
+        }, writer));
+    }
+
+    private synchronized void added(String domain) {
+        if (snapshot != null) {
+            snapshot = snapshot.with(List.of(domain));
+        }
+    }
+
+    private synchronized Snapshot refresh(AuthenticationSettings authenticationSettings)
+            throws AuthorizationException {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt <= refreshIntervalNanos) {
+            return current;
+        }
+        List<String> domains = authenticationSettings.getSupportedDomains();
+        current = new Snapshot(domains == null ? List.of() : domains, System.nanoTime());
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * Immutable view of the supported domains, lower-cased, with a compiled {@link DomainMatcher}.
+     */
+    public static final class Snapshot {
+
+        private final List<String> domains;
+        private final Set<String> lookup;
+        private final DomainMatcher matcher;
+        private final long loadedAt;
+
+        private Snapshot(Collection<String> domains, long loadedAt) {
+            Set<String> normalized = new LinkedHashSet<>();
+            for (String domain : domains) {
+                if (domain != null && !domain.isBlank()) {
+                    normalized.add(domain.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            this.domains = List.copyOf(normalized);
+            this.lookup = Set.copyOf(normalized);
+            this.matcher = DomainMatcher.compile(this.domains);
+            this.loadedAt = loadedAt;
+        }
+
+        public List<String> getDomains() {
+            return domains;
+        }
+
+        /**
+         * @return the domains compiled once per snapshot, for {@link CommonUtils#validateIfSupportedDomainIn}.
+         */
+        public DomainMatcher getMatcher() {
+            return matcher;
+        }
+
+        public boolean contains(String domain) {
+            return domain != null && lookup.contains(domain.trim().toLowerCase(Locale.ROOT));
+        }
+
+        private Snapshot with(Collection<String> added) {
+            if (added.isEmpty() || lookup.containsAll(added)) {
+                return this;
+            }
+            List<String> merged = new ArrayList<>(domains);
+            merged.addAll(added);
+            return new Snapshot(merged, loadedAt);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "domains=" + domains +
+                    '}';
+        }
+
+    }
+
+}
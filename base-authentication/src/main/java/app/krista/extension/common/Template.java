@@ -0,0 +1,141 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal text template with {@code {{name}}} placeholders, parsed once into literal and placeholder segments.
+ * <p>
+ * Rendering appends the segments into one presized builder; a placeholder without a value is an error rather
+ * than an empty string. Values are inserted as given, use {@link #escapeHtml(CharSequence)} for markup.
+ */
+public final class Template {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final List<String> literals = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final int literalLength;
+
+    private Template(String text) {
+        int length = 0;
+        int position = 0;
+        while (true) {
+            int open = text.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                literals.add(text.substring(position));
+                length += text.length() - position;
+                break;
+            }
+            String name = text.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset " + open + ".");
+            }
+            literals.add(text.substring(position, open));
+            names.add(name);
+            length += open - position;
+            position = close + CLOSE.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static Template compile(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Template text is null.");
+        }
+        return new Template(text);
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(names));
+    }
+
+    public String render(Map<String, String> values) {
+        List<String> rendered = new ArrayList<>(names.size());
+        int length = literalLength;
+        for (String name : names) {
+            String value = values.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template value: " + name);
+            }
+            rendered.add(value);
+            length += value.length();
+        }
+        StringBuilder output = new StringBuilder(length);
+        for (int i = 0; i < rendered.size(); i++) {
+            output.append(literals.get(i)).append(rendered.get(i));
+        }
+        return output.append(literals.get(literals.size() - 1)).toString();
+    }
+
+    /**
+     * Escapes text for HTML element content and quoted attributes. Backticks, {@code $} and backslashes are
+     * escaped too, so the result is also safe inside a JavaScript template literal.
+     */
+    public static String escapeHtml(CharSequence text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = getHtmlEscape(c);
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement == null) {
+                    escaped.append(c);
+                } else {
+                    escaped.append(replacement);
+                }
+            }
+        }
+        return escaped == null ? text.toString() : escaped.toString();
+    }
+
+    private static String getHtmlEscape(char c) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '\'':
+                return "&#39;";
+            case '`':
+                return "&#96;";
+            case '$':
+                return "&#36;";
+            case '\\':
+                return "&#92;";
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Renders the current time as {@code yyyy-MM-dd'T'HH:mm:ss Z} in UTC, for example
+ * {@code 2026-01-15T10:00:00 +0000}, the format of login timestamps and account attributes.
+ * <p>
+ * The formatter is immutable and the rendered value is cached for the current second, so concurrent logins share
+ * one string without locking. Tests can pass their own {@link Clock}.
+ */
+public final class Timestamps {
+
+    public static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss Z";
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofPattern(PATTERN, Locale.ROOT).withZone(ZoneOffset.UTC);
+    private static final Timestamps SYSTEM = new Timestamps(Clock.systemUTC());
+
+    private final Clock clock;
+    private volatile Rendered last;
+
+    public Timestamps(Clock clock) {
+        this.clock = clock;
+    }
+
+    public static Timestamps system() {
+        return SYSTEM;
+    }
+
+    public String now() {
+        long epochSecond = Math.floorDiv(clock.millis(), 1000L);
+        Rendered rendered = last;
+        if (rendered == null || rendered.epochSecond != epochSecond) {
+            // Racing threads may both render the same second; either result is correct.
+            rendered = new Rendered(epochSecond, FORMATTER.format(Instant.ofEpochSecond(epochSecond)));
+            last = rendered;
+        }
+        return rendered.text;
+    }
+
+    private static final class Rendered {
+
+        private final long epochSecond;
+        private final String text;
+
+        private Rendered(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+
+    }
+
+}
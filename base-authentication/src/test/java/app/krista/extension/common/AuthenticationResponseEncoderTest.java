@@ -0,0 +1,123 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import app.krista.model.field.util.GsonJsonMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthenticationResponseEncoderTest {
+
+    @Test
+    public void encodeMatchesGoldenFile() throws IOException {
+        // When
+        byte[] encoded = AuthenticationResponseEncoder.encode(response());
+
+        // Then
+        Assert.assertArrayEquals(golden(), encoded);
+    }
+
+    @Test
+    public void goldenFileIsGsonJsonMapperOutput() throws IOException {
+        // When
+        byte[] mapped = GsonJsonMapper.create().toString(response()).getBytes(StandardCharsets.UTF_8);
+
+        // Then
+        Assert.assertArrayEquals(golden(), mapped);
+    }
+
+    @Test
+    public void encodeEscapesHtmlLikeGsonJsonMapper() {
+        // Given
+        AuthenticationResponse response = new AuthenticationResponse("<script>alert('x')</script>", "a=b&c",
+                null, null, null, null, List.of("<role>"), null, false, false, Map.of("email", "a&b@example.com"),
+                Map.of("html", "</script><!--"));
+
+        // When
+        String encoded = new String(AuthenticationResponseEncoder.encode(response), StandardCharsets.UTF_8);
+
+        // Then
+        Assert.assertEquals(GsonJsonMapper.create().toString(response), encoded);
+        Assert.assertFalse(encoded.contains("<"));
+    }
+
+    @Test
+    public void writeMatchesEncode() throws IOException {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        AuthenticationResponseEncoder.write(response(), output);
+
+        // Then
+        Assert.assertArrayEquals(AuthenticationResponseEncoder.encode(response()), output.toByteArray());
+    }
+
+    @Test
+    public void encodeLeavesOutNullFields() {
+        // Given
+        AuthenticationResponse response =
+                new AuthenticationResponse(null, null, null, null, null, null, null, null, false, true, null, null);
+
+        // When
+        String encoded = new String(AuthenticationResponseEncoder.encode(response), StandardCharsets.UTF_8);
+
+        // Then
+        Assert.assertEquals(GsonJsonMapper.create().toString(response), encoded);
+        Assert.assertEquals("{\"isWorkspaceAdmin\":false,\"isApplianceManager\":true}", encoded);
+    }
+
+    static AuthenticationResponse response() {
+        Map<String, String> identificationToken = new LinkedHashMap<>();
+        identificationToken.put("email", "jane.doe+demo@example.com");
+        identificationToken.put("unset", null);
+        Map<String, Object> extras = new LinkedHashMap<>();
+        extras.put("creationTime", "2026-01-15T10:00:00 +0000");
+        extras.put("auth", "{\"token\":\"a<b>&c='d'\"}");
+        extras.put("attempts", 3);
+        extras.put("size", 12_345_678_901L);
+        extras.put("score", 0.25);
+        extras.put("ratio", 1.5f);
+        extras.put("enabled", true);
+        extras.put("unset", null);
+        extras.put("tags", Arrays.asList("x", null, "z"));
+        extras.put("nested", Map.of("key", List.of(1, 2)));
+        extras.put("initial", 'J');
+        return new AuthenticationResponse("session_\u0001\t\n\r\b\f\"\\/\u001f", "J\u00f6hn D\u0153 \ud83d\ude00",
+                null, "account_1", "krista_\u2028\u2029\u007f", "person_\ud800", List.of("role_1", "role_2"),
+                "inbox_1", true, false, identificationToken, extras);
+    }
+
+    private static byte[] golden() throws IOException {
+        try (InputStream golden = AuthenticationResponseEncoderTest.class.getResourceAsStream(
+                "/authentication-response.json")) {
+            Assert.assertNotNull(golden);
+            return golden.readAllBytes();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void insertedValuesAreAlwaysContained() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            filter.put("session-" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(filter.mightContain("session-" + i));
+        }
+        Assert.assertEquals(1000, filter.getInsertionCount());
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("live-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < 2_000);
+    }
+
+    @Test
+    public void invalidSizingIsRejected() {
+        // Then
+        Assert.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.ksdk.authentication.SessionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientSessionUtilTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final CountDownLatch lookupStarted = new CountDownLatch(1);
+    private final CountDownLatch logoutDone = new CountDownLatch(1);
+    private final SessionManager blockingSessionManager = (SessionManager) Proxy.newProxyInstance(
+            SessionManager.class.getClassLoader(), new Class<?>[]{SessionManager.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("lookupAccountId")) {
+                    lookups.incrementAndGet();
+                    lookupStarted.countDown();
+                    Assert.assertTrue(logoutDone.await(5, TimeUnit.SECONDS));
+                    return "account-1";
+                }
+                return null;
+            });
+
+    @Test
+    public void lookupCachesAccountId() throws Exception {
+        // Given
+        String clientSessionId = UUID.randomUUID().toString();
+        logoutDone.countDown();
+
+        // When
+        String first = ClientSessionUtil.lookupAccountId(blockingSessionManager, clientSessionId);
+        String second = ClientSessionUtil.lookupAccountId(blockingSessionManager, clientSessionId);
+
+        // Then
+        Assert.assertEquals("account-1", first);
+        Assert.assertEquals("account-1", second);
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void logoutDuringLookupIsNotUndone() throws Exception {
+        // Given
+        String clientSessionId = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> lookup = executor.submit(() ->
+                    ClientSessionUtil.lookupAccountId(blockingSessionManager, clientSessionId));
+            Assert.assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+
+            // When
+            ClientSessionUtil.invalidateSession(clientSessionId);
+            logoutDone.countDown();
+            String accountId = lookup.get(5, TimeUnit.SECONDS);
+
+            // Then
+            Assert.assertNull(accountId);
+            Assert.assertNull(ClientSessionUtil.getSessionCache().get(clientSessionId));
+            Assert.assertNull(ClientSessionUtil.lookupAccountId(blockingSessionManager, clientSessionId));
+            Assert.assertEquals(1, lookups.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void revokedSessionIsNotServedFromCache() throws Exception {
+        // Given
+        String clientSessionId = UUID.randomUUID().toString();
+        ClientSessionUtil.rememberSession(clientSessionId, "account-1");
+
+        // When
+        ClientSessionUtil.getRevokedSessionFilter().revoke(clientSessionId);
+
+        // Then
+        Assert.assertNull(ClientSessionUtil.lookupAccountId(blockingSessionManager, clientSessionId));
+        Assert.assertEquals(0, lookups.get());
+    }
+
+}
@@ -21,6 +21,7 @@ package app.krista.extension.common;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -143,4 +144,18 @@ public class CommonUtilsTest {
         CommonUtils.validateIfSupportedDomain(null, null, null);
     }
 
+    @Test
+    public void validateIfSupportedDomainInCompiledDomains() {
+        // Given
+        DomainMatcher workspaceDomains = DomainMatcher.compile(List.of("example.com"));
+
+        // When
+        CommonUtils.validateIfSupportedDomainIn("jane@example.com", workspaceDomains, "other.org");
+
+        // Then
+        IllegalArgumentException failure = Assert.assertThrows(IllegalArgumentException.class,
+                () -> CommonUtils.validateIfSupportedDomainIn("jane@unknown.org", workspaceDomains, "other.org"));
+        Assert.assertEquals("Domain unknown.org is not supported.", failure.getMessage());
+    }
+
 }
\ No newline at end of file
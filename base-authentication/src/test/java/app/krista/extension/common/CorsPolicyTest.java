@@ -0,0 +1,135 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CorsPolicyTest {
+
+    @Test
+    public void emptyListAllowsAnyOrigin() {
+        // When
+        CorsPolicy policy = CorsPolicy.of("");
+
+        // Then
+        Assert.assertTrue(policy.allowsAnyOrigin());
+        Assert.assertEquals(Map.of("Access-Control-Allow-Origin", "*"),
+                policy.getResponseHeaders("https://anywhere.example"));
+        Assert.assertEquals("*", policy.getPreflightHeaders(null).get("Access-Control-Allow-Origin"));
+        Assert.assertNull(policy.getPreflightHeaders(null).get("Vary"));
+    }
+
+    @Test
+    public void wildcardEntryAllowsAnyOrigin() {
+        // When
+        CorsPolicy policy = CorsPolicy.compile(List.of("https://portal.example.com", "*"));
+
+        // Then
+        Assert.assertTrue(policy.allowsAnyOrigin());
+    }
+
+    @Test
+    public void exactOrigins() {
+        // Given
+        CorsPolicy policy = CorsPolicy.compile(List.of(" https://Portal.Example.com/ ", "http://localhost:8080"));
+
+        // Then
+        Assert.assertTrue(policy.isAllowed("https://portal.example.com"));
+        Assert.assertTrue(policy.isAllowed("https://portal.example.com:443"));
+        Assert.assertTrue(policy.isAllowed("http://localhost:8080"));
+        Assert.assertFalse(policy.isAllowed("http://portal.example.com"));
+        Assert.assertFalse(policy.isAllowed("http://localhost:8081"));
+        Assert.assertFalse(policy.isAllowed("https://evil.portal.example.com"));
+        Assert.assertFalse(policy.isAllowed("null"));
+        Assert.assertFalse(policy.isAllowed(null));
+    }
+
+    @Test
+    public void wildcardHosts() {
+        // Given
+        CorsPolicy policy = CorsPolicy.compile(List.of("https://*.example.com", "*.krista.app"));
+
+        // Then
+        Assert.assertTrue(policy.isAllowed("https://portal.example.com"));
+        Assert.assertTrue(policy.isAllowed("https://a.b.example.com"));
+        Assert.assertFalse(policy.isAllowed("https://example.com"));
+        Assert.assertFalse(policy.isAllowed("http://portal.example.com"));
+        Assert.assertFalse(policy.isAllowed("https://portal.example.com:8443"));
+        Assert.assertFalse(policy.isAllowed("https://portal.example.com.evil.io"));
+        Assert.assertTrue(policy.isAllowed("http://chat.krista.app"));
+        Assert.assertTrue(policy.isAllowed("https://chat.krista.app"));
+    }
+
+    @Test
+    public void allowedOriginIsEchoedWithVary() {
+        // Given
+        CorsPolicy policy = CorsPolicy.of("https://portal.example.com");
+
+        // When
+        Map<String, String> response = policy.getResponseHeaders("https://portal.example.com");
+        Map<String, String> preflight = policy.getPreflightHeaders("https://portal.example.com");
+
+        // Then
+        Assert.assertEquals("https://portal.example.com", response.get("Access-Control-Allow-Origin"));
+        Assert.assertEquals("Origin", response.get("Vary"));
+        Assert.assertEquals("https://portal.example.com", preflight.get("Access-Control-Allow-Origin"));
+        Assert.assertEquals(CorsPolicy.ALLOWED_METHODS, preflight.get("Access-Control-Allow-Methods"));
+        Assert.assertEquals(Long.toString(CorsPolicy.MAX_AGE_SECONDS), preflight.get("Access-Control-Max-Age"));
+        Assert.assertEquals("Origin", preflight.get("Vary"));
+        Assert.assertSame(preflight, policy.getPreflightHeaders("https://portal.example.com"));
+    }
+
+    @Test
+    public void deniedOriginOnlyGetsVary() {
+        // Given
+        CorsPolicy policy = CorsPolicy.of("https://portal.example.com");
+
+        // Then
+        Assert.assertEquals(Map.of("Vary", "Origin"), policy.getResponseHeaders("https://other.example.com"));
+        Assert.assertEquals(Map.of("Vary", "Origin"), policy.getPreflightHeaders("https://other.example.com"));
+    }
+
+    @Test
+    public void invalidEntryIsSkipped() {
+        // When
+        CorsPolicy policy = CorsPolicy.compile(List.of("https://portal.example.com/login", " https://:8080 ",
+                "https://chat.example.com"));
+
+        // Then
+        Assert.assertEquals(List.of("https://portal.example.com/login", "https://:8080"), policy.getInvalidOrigins());
+        Assert.assertFalse(policy.allowsAnyOrigin());
+        Assert.assertTrue(policy.isAllowed("https://chat.example.com"));
+        Assert.assertFalse(policy.isAllowed("https://portal.example.com"));
+    }
+
+    @Test
+    public void listOfOnlyInvalidEntriesAllowsNoOrigin() {
+        // When
+        CorsPolicy policy = CorsPolicy.of("https://portal.example.com/login");
+
+        // Then
+        Assert.assertSame(policy, CorsPolicy.of("https://portal.example.com/login"));
+        Assert.assertFalse(policy.allowsAnyOrigin());
+        Assert.assertFalse(policy.isAllowed("https://portal.example.com"));
+    }
+
+}
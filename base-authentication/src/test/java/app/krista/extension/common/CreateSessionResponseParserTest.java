@@ -0,0 +1,176 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CreateSessionResponseParserTest {
+
+    private static final String RESPONSE = "{\"clientSessionId\":\"session-1\",\"kristaAccountId\":\"krista-1\","
+            + "\"person\":{\"name\":\"Jane Doe\",\"icon\":{\"uri\":\"https://cdn/icon.png\",\"width\":64}},"
+            + "\"account\":{\"personId\":{\"id\":\"person-1\"},\"name\":\"Jane Doe\",\"localId\":{\"id\":\"local-1\"},"
+            + "\"roles\":[{\"id\":\"role-1\",\"name\":\"Krista User\"},{\"id\":\"role-2\"}],"
+            + "\"inboxId\":{\"id\":\"inbox-1\"},\"isWorkspaceAdmin\":true,\"isApplianceManager\":false,"
+            + "\"preferences\":{\"theme\":\"dark\",\"tags\":[1,2,{\"a\":null}]}},\"capabilities\":[\"chat\"]}";
+
+    private final CreateSessionResponseParser parser = new CreateSessionResponseParser();
+
+    @Test
+    public void parseMapReadsAllFields() {
+        // When
+        AuthenticationResponse response = parser.parse(map(RESPONSE), "jane@kristasoft.com", "extra");
+
+        // Then
+        Assert.assertEquals("session-1", response.getClientSessionId());
+        Assert.assertEquals("Jane Doe", response.getName());
+        Assert.assertEquals("https://cdn/icon.png", response.getAvatarUrl());
+        Assert.assertEquals("local-1", response.getAccountId());
+        Assert.assertEquals("krista-1", response.getKristaAccountId());
+        Assert.assertEquals("person-1", response.getPersonId());
+        Assert.assertEquals(List.of("role-1", "role-2"), response.getRoles());
+        Assert.assertEquals("inbox-1", response.getInboxId());
+        Assert.assertTrue(response.isWorkspaceAdmin());
+        Assert.assertFalse(response.isApplianceManager());
+    }
+
+    @Test
+    public void parseStreamMatchesParseMap() throws IOException {
+        // Given
+        String expected = json(parser.parse(map(RESPONSE), "jane@kristasoft.com", "extra"));
+
+        // When
+        AuthenticationResponse response = parser.parse(stream(RESPONSE), "jane@kristasoft.com", "extra");
+
+        // Then
+        Assert.assertEquals(expected, json(response));
+    }
+
+    @Test
+    public void parseStreamWithoutIcon() throws IOException {
+        // Given
+        String withoutIcon =
+                RESPONSE.replace("\"icon\":{\"uri\":\"https://cdn/icon.png\",\"width\":64}", "\"icon\":null");
+
+        // When
+        AuthenticationResponse response = parser.parse(stream(withoutIcon), "jane@kristasoft.com", "extra");
+
+        // Then
+        Assert.assertEquals("", response.getAvatarUrl());
+    }
+
+    @Test
+    public void parseStreamReportsMissingKeys() {
+        // Given
+        String withoutAccount = "{\"clientSessionId\":\"session-1\",\"person\":{}}";
+
+        // When
+        IllegalArgumentException error = Assert.assertThrows(IllegalArgumentException.class,
+                () -> parser.parse(stream(withoutAccount), "jane@kristasoft.com", "extra"));
+
+        // Then
+        Assert.assertEquals("Missing required keys from create session response. [account]", error.getMessage());
+    }
+
+    @Test
+    public void parseMapConvertsTypedValues() {
+        // Given
+        Map<String, Object> response = map(RESPONSE);
+        response.put("person", new Person(new Icon("https://cdn/other.png")));
+
+        // When
+        AuthenticationResponse parsed = parser.parse(response, "jane@kristasoft.com", "extra");
+
+        // Then
+        Assert.assertEquals("https://cdn/other.png", parsed.getAvatarUrl());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void parseMapConvertsTypedNestedValues() {
+        // Given
+        Map<String, Object> response = map(RESPONSE);
+        Map<String, Object> account = (Map<String, Object>) response.get("account");
+        account.put("personId", new Id("person-2"));
+        account.put("localId", new Id("local-2"));
+        account.put("inboxId", new Id("inbox-2"));
+        account.put("roles", List.of(new Id("role-3")));
+        ((Map<String, Object>) response.get("person")).put("icon", new Icon("https://cdn/other.png"));
+
+        // When
+        AuthenticationResponse parsed = parser.parse(response, "jane@kristasoft.com", "extra");
+
+        // Then
+        Assert.assertEquals("person-2", parsed.getPersonId());
+        Assert.assertEquals("local-2", parsed.getAccountId());
+        Assert.assertEquals("inbox-2", parsed.getInboxId());
+        Assert.assertEquals(List.of("role-3"), parsed.getRoles());
+        Assert.assertEquals("https://cdn/other.png", parsed.getAvatarUrl());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(String json) {
+        return new Gson().fromJson(json, Map.class);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String json(AuthenticationResponse response) {
+        return new String(AuthenticationResponseEncoder.encode(response), StandardCharsets.UTF_8);
+    }
+
+    private static final class Person {
+
+        private final Icon icon;
+
+        private Person(Icon icon) {
+            this.icon = icon;
+        }
+
+    }
+
+    private static final class Id {
+
+        private final String id;
+
+        private Id(String id) {
+            this.id = id;
+        }
+
+    }
+
+    private static final class Icon {
+
+        private final String uri;
+
+        private Icon(String uri) {
+            this.uri = uri;
+        }
+
+    }
+
+}
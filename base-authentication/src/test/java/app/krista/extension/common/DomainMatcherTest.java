@@ -0,0 +1,71 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DomainMatcherTest {
+
+    @Test
+    public void matchesExactDomains() {
+        // Given
+        DomainMatcher matcher = DomainMatcher.of(" Example.com , kristasoft.com");
+
+        // Then
+        Assert.assertTrue(matcher.matches("example.com"));
+        Assert.assertTrue(matcher.matches("EXAMPLE.COM "));
+        Assert.assertTrue(matcher.matchesEmail("abc@KristaSoft.com"));
+        Assert.assertFalse(matcher.matches("ample.com")); //substring of a configured domain
+        Assert.assertFalse(matcher.matches("mail.example.com"));
+        Assert.assertFalse(matcher.matchesEmail("abc"));
+    }
+
+    @Test
+    public void matchesWildcardSubdomains() {
+        // Given
+        DomainMatcher matcher = DomainMatcher.compile(List.of("*.example.com", "*.b.test.org"));
+
+        // Then
+        Assert.assertTrue(matcher.matches("mail.example.com"));
+        Assert.assertTrue(matcher.matches("a.b.example.com"));
+        Assert.assertTrue(matcher.matches("a.b.test.org"));
+        Assert.assertFalse(matcher.matches("example.com"));
+        Assert.assertFalse(matcher.matches(".example.com"));
+        Assert.assertFalse(matcher.matches("b.test.org"));
+        Assert.assertFalse(matcher.matches("a.c.test.org"));
+        Assert.assertFalse(matcher.matches("badexample.com"));
+    }
+
+    @Test
+    public void matchesAll() {
+        Assert.assertTrue(DomainMatcher.of(null).matches("any.com"));
+        Assert.assertTrue(DomainMatcher.of("").matches("any.com"));
+        Assert.assertTrue(DomainMatcher.of("All").matches("any.com"));
+        Assert.assertTrue(DomainMatcher.of("example.com, all").matches("any.com"));
+        Assert.assertFalse(DomainMatcher.of(" , ").matches("any.com"));
+    }
+
+    @Test
+    public void ofReusesCompiledMatcher() {
+        Assert.assertSame(DomainMatcher.of("example.com,test.org"), DomainMatcher.of("example.com,test.org"));
+    }
+
+}
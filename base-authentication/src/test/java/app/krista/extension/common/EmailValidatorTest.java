@@ -0,0 +1,127 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EmailValidatorTest {
+
+    // The regular expressions EmailValidator replaces.
+    private static final Pattern EMAIL = Pattern.compile(
+            "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+    private static final Pattern NORMALIZED_EMAIL =
+            Pattern.compile("^[a-z0-9_+&*-]+(?:\\.[a-z0-9_+&*-]+)*@(?:[a-z0-9-]+\\.)+[a-z]{2,7}$");
+    private static final Pattern DOMAIN = Pattern.compile("^((?!-)[A-Za-z0-9-]{1,63}(?<!-)\\.)+[A-Za-z]{2,6}");
+
+    private static final String[] EMAILS = {
+            "exa.ada", "abc@kristasoft.com", "", "abc@wrong.com", "abc@example.com",
+            "a@b.co", "a.b.c@d.e.fg", "A_B+C&D*E-F@Sub-Domain.Example.COM", "a..b@c.com", ".a@b.com", "a.@b.com",
+            "a@b", "a@.b.com", "a@b..com", "a@b.c", "a@b.abcdefgh", "a@b.abcdefg", "a@b.c0m", "a@b-.com",
+            "a@-b.com", "a@b.co-m", "a@@b.com", "a b@c.com", "a@b.com ", " a@b.com", "\ta@b.com\n", "a@b.com\n",
+            "é@b.com", "a@é.com", "a@b.cöm", "a@1.2.com", "a@b_c.com", "a!b@c.com", "@b.com", "a@", "a@b.com.",
+            "user.name+tag@mail.example.co.uk", "a@b.c.d.e.f.gh"
+    };
+
+    private static final String[] DOMAINS = {
+            "dummy", "kristasoft.com", "", "gmail.com,kristasoft.com,antbrains.com", "a.co", "sub.example.com",
+            "-a.com", "a-.com", "a-b.com", "a..com", ".com", "a.c", "a.abcdef", "a.abcdefg", "a.c0m", "1.2.com",
+            "a_b.com", "EXAMPLE.COM", "exa mple.com", "a.com.", "x".repeat(63) + ".com", "x".repeat(64) + ".com",
+            "é.com"
+    };
+
+    @Test
+    public void isValidEmailMatchesRegex() {
+        for (String email : corpus(EMAILS, "aZ09_+&*-.@é \t")) {
+            Assert.assertEquals(email, EMAIL.matcher(email).matches(), EmailValidator.isValidEmail(email));
+        }
+        Assert.assertFalse(EmailValidator.isValidEmail(null));
+    }
+
+    @Test
+    public void scanMatchesNormalizedRegex() {
+        for (String email : corpus(EMAILS, "aZ09_+&*-.@é \t")) {
+            boolean expected = !email.isBlank() && NORMALIZED_EMAIL.matcher(email.strip().toLowerCase()).matches();
+            Assert.assertEquals(email, expected, EmailValidator.scan(email) != EmailValidator.INVALID);
+            Assert.assertEquals(email, expected, EmailAddresses.isValidEmailAddress(email));
+        }
+    }
+
+    @Test
+    public void isValidDomainMatchesRegex() {
+        for (String domain : corpus(DOMAINS, "aZ09-._é")) {
+            Assert.assertEquals(domain, DOMAIN.matcher(domain).matches(), EmailValidator.isValidDomain(domain));
+        }
+        Assert.assertFalse(EmailValidator.isValidDomain(null));
+    }
+
+    @Test
+    public void scanOffsets() {
+        // Given
+        String email = "  Jane.Doe@Example.com\t";
+
+        // When
+        long scan = EmailValidator.scan(email);
+
+        // Then
+        Assert.assertEquals(2, EmailValidator.getLocalPartStart(scan));
+        Assert.assertEquals(10, EmailValidator.getAtIndex(scan));
+        Assert.assertEquals(22, EmailValidator.getEnd(scan));
+        Assert.assertEquals("jane.doe@example.com", EmailValidator.normalize(email, scan));
+    }
+
+    @Test
+    public void normalizeReturnsNormalizedInput() {
+        // Given
+        String email = "jane.doe@example.com";
+
+        // When
+        String normalized = EmailValidator.normalize(email, EmailValidator.scan(email));
+
+        // Then
+        Assert.assertSame(email, normalized);
+        Assert.assertEquals("example.com", EmailAddresses.getDomainName(" Jane.Doe@EXAMPLE.com"));
+        Assert.assertEquals("jane.doe", EmailAddresses.getLocalPart(" Jane.Doe@EXAMPLE.com"));
+    }
+
+    private static List<String> corpus(String[] samples, String alphabet) {
+        List<String> corpus = new ArrayList<>(List.of(samples));
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            corpus.add(value.toString());
+            // Mutate a known sample as well, so near-valid values are covered.
+            StringBuilder mutated = new StringBuilder(samples[random.nextInt(samples.length)]);
+            if (mutated.length() > 0) {
+                mutated.setCharAt(random.nextInt(mutated.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            corpus.add(mutated.toString());
+        }
+        return corpus;
+    }
+
+}
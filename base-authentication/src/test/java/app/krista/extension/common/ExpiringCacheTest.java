@@ -0,0 +1,123 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+
+    @Test
+    public void getReturnsStoredValue() {
+        // Given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+
+        // When
+        cache.put("session", "account");
+
+        // Then
+        Assert.assertEquals("account", cache.get("session"));
+        Assert.assertNull(cache.get("other"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void entriesExpireAfterTimeToLive() throws InterruptedException {
+        // Given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMillis(20));
+        cache.put("session", "account");
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        Assert.assertNull(cache.get("session"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void sizeStaysBounded() {
+        // Given
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(100, Duration.ofMinutes(1));
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        // Then
+        Assert.assertTrue(cache.size() <= 100);
+        Assert.assertTrue(cache.getEvictionCount() >= 900);
+    }
+
+    @Test
+    public void nullKeysAndValuesAreIgnored() {
+        // Given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+
+        // When
+        cache.put(null, "account");
+        cache.put("session", null);
+
+        // Then
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(null));
+    }
+
+    @Test
+    public void invalidateAndClear() {
+        // Given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // When
+        cache.invalidate("a");
+
+        // Then
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals("2", cache.get("b"));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidBoundsAreRejected() {
+        // Then
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ExpiringCache<>(0, Duration.ofMinutes(1)));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ExpiringCache<>(10, Duration.ZERO));
+    }
+
+    @Test
+    public void sessionCacheDefaults() {
+        // Given
+        SessionCache cache = new SessionCache();
+
+        // When
+        cache.put("session", "account");
+
+        // Then
+        Assert.assertEquals("account", cache.get("session"));
+        Assert.assertTrue(cache.toString().startsWith("SessionCache{size=1"));
+    }
+
+}
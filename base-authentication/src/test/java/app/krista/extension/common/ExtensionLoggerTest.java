@@ -0,0 +1,142 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExtensionLoggerTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ExtensionLogger.RingBuffer buffer =
+            new ExtensionLogger.RingBuffer(4, new PrintStream(output, true, StandardCharsets.UTF_8), false);
+    private final ExtensionLogger logger = new ExtensionLogger("ExtensionLoggerTest", buffer);
+    private final ExtensionLogger.Level originalLevel = ExtensionLogger.getLevel();
+
+    @After
+    public void restoreLevel() {
+        ExtensionLogger.setLevel(originalLevel);
+    }
+
+    @Test
+    public void eventIsRenderedAsLogfmt() {
+        // Given
+        ExtensionLogger.setLevel(ExtensionLogger.Level.INFO);
+
+        // When
+        logger.log(ExtensionLogger.Level.INFO, "login", "path", "/login", "reason", "no \"session\"");
+        buffer.drain();
+
+        // Then
+        String line = lines()[0];
+        Assert.assertTrue(line, line.endsWith(
+                " level=INFO logger=ExtensionLoggerTest event=login path=/login reason=\"no \\\"session\\\"\""));
+    }
+
+    @Test
+    public void levelGatesEvents() {
+        // Given
+        ExtensionLogger.setLevel(ExtensionLogger.Level.WARN);
+
+        // When
+        logger.log(ExtensionLogger.Level.DEBUG, "debug.event");
+        logger.log(ExtensionLogger.Level.INFO, "info.event");
+        logger.log(ExtensionLogger.Level.ERROR, "error.event");
+        buffer.drain();
+
+        // Then
+        String[] lines = lines();
+        Assert.assertEquals(1, lines.length);
+        Assert.assertTrue(lines[0].contains("event=error.event"));
+        Assert.assertFalse(logger.isEnabled(ExtensionLogger.Level.INFO));
+        Assert.assertTrue(logger.isEnabled(ExtensionLogger.Level.WARN));
+        Assert.assertFalse(logger.isEnabled(ExtensionLogger.Level.OFF));
+    }
+
+    @Test
+    public void fullBufferDropsAndCounts() {
+        // Given
+        ExtensionLogger.setLevel(ExtensionLogger.Level.INFO);
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            logger.log(ExtensionLogger.Level.INFO, "overflow", "index", i);
+        }
+
+        // Then
+        Assert.assertEquals(2, buffer.getDroppedCount());
+        Assert.assertTrue(buffer.drain());
+        String[] lines = lines();
+        Assert.assertEquals(4, lines.length);
+        Assert.assertTrue(lines[0].endsWith("index=0"));
+        Assert.assertTrue(lines[3].endsWith("index=3"));
+    }
+
+    @Test
+    public void drainEmptiesBufferForNewEvents() {
+        // Given
+        ExtensionLogger.setLevel(ExtensionLogger.Level.INFO);
+        for (int i = 0; i < 4; i++) {
+            logger.log(ExtensionLogger.Level.INFO, "before", "index", i);
+        }
+
+        // When
+        buffer.drain();
+        logger.log(ExtensionLogger.Level.INFO, "after");
+
+        // Then
+        Assert.assertEquals(0, buffer.getDroppedCount());
+        Assert.assertTrue(buffer.drain());
+        Assert.assertFalse(buffer.drain());
+        Assert.assertEquals(5, lines().length);
+    }
+
+    @Test
+    public void errorIsRenderedWithStackTrace() {
+        // Given
+        ExtensionLogger.setLevel(ExtensionLogger.Level.INFO);
+
+        // When
+        logger.log(ExtensionLogger.Level.ERROR, "failed", new IllegalStateException("platform down"));
+        buffer.drain();
+
+        // Then
+        String text = output.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(text.contains("event=failed error=\"platform down\""));
+        Assert.assertTrue(text.contains("java.lang.IllegalStateException: platform down"));
+    }
+
+    @Test
+    public void hashIsStableAndShort() {
+        // Then
+        Assert.assertEquals(ExtensionLogger.hash("account-1"), ExtensionLogger.hash("account-1"));
+        Assert.assertNotEquals(ExtensionLogger.hash("account-1"), ExtensionLogger.hash("account-2"));
+        Assert.assertTrue(ExtensionLogger.hash("account-1").length() <= 8);
+        Assert.assertNull(ExtensionLogger.hash(null));
+    }
+
+    private String[] lines() {
+        return output.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KristaContextHeaderTest {
+
+    @Test
+    public void getClientSessionId() {
+        // Given
+        String header = encode("{\"clientSessionId\":\"session_6f1c-42aa\"}");
+
+        // When
+        String clientSessionId = KristaContextHeader.getClientSessionId(header);
+
+        // Then
+        Assert.assertEquals("session_6f1c-42aa", clientSessionId);
+    }
+
+    @Test
+    public void getClientSessionIdMatchesFullParse() {
+        // Given
+        String[] headers = {
+                encode("{\"clientSessionId\":\"abc\"}"),
+                encode(" { \"clientSessionId\" : \"abc\" } "),
+                encode("{\"other\":\"x,y\",\"count\":3,\"flag\":true,\"clientSessionId\":\"abc\"}"),
+                encode("{\"clientSessionIds\":\"abc\"}"),
+                encode("{\"clientSession\":\"abc\"}"),
+                encode("{\"clientSessionId\":null}"),
+                encode("{\"clientSessionId\":\"a b+c\"}"),
+                encode("{\"clientSessionId\":\"\\u00e9t\\u00e9\"}"),
+                encode("{\"clientSessionId\":\"été\"}"),
+                encode("{\"nested\":{\"clientSessionId\":\"inner\"},\"clientSessionId\":\"outer\"}"),
+                encode("{}"),
+                "{\"clientSessionId\":\"raw\"}",
+                "%7B%22clientSessionId%22%3A%22plus+sign%22%7D",
+                "%7b%22clientSessionId%22%3a%22lower%22%7d",
+                "{clientSessionId:'lenient'}"
+        };
+
+        for (String header : headers) {
+            // When
+            String scanned = KristaContextHeader.getClientSessionId(header);
+            String parsed = KristaContextHeader.parse(header);
+
+            // Then
+            Assert.assertEquals(header, parsed, scanned);
+        }
+    }
+
+    @Test
+    public void getClientSessionIdWithoutHeader() {
+        Assert.assertNull(KristaContextHeader.getClientSessionId(null));
+    }
+
+    private static String encode(String json) {
+        return URLEncoder.encode(json, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RevokedSessionFilterTest {
+
+    @Test
+    public void revokedSessionIsRejected() {
+        // Given
+        RevokedSessionFilter filter = new RevokedSessionFilter();
+
+        // When
+        filter.revoke("session-1");
+
+        // Then
+        Assert.assertTrue(filter.mightBeRevoked("session-1"));
+        Assert.assertTrue(filter.isRejected("session-1"));
+        Assert.assertFalse(filter.isRejected("session-2"));
+        Assert.assertEquals(1, filter.getRejectionCount());
+    }
+
+    @Test
+    public void bloomFalsePositiveDoesNotRejectLiveSession() {
+        // Given a tiny, deliberately inaccurate filter and an identically sized Bloom filter to find a collision
+        RevokedSessionFilter filter = new RevokedSessionFilter(4, 0.5, 10, Duration.ofMinutes(1));
+        BloomFilter mirror = new BloomFilter(4, 0.5);
+        for (int i = 0; i < 4; i++) {
+            filter.revoke("revoked-" + i);
+            mirror.put("revoked-" + i);
+        }
+        String falsePositive = null;
+        for (int i = 0; falsePositive == null && i < 10_000; i++) {
+            if (mirror.mightContain("live-" + i)) {
+                falsePositive = "live-" + i;
+            }
+        }
+        Assert.assertNotNull(falsePositive);
+
+        // When
+        boolean rejected = filter.isRejected(falsePositive);
+
+        // Then the hit is left for the platform to confirm
+        Assert.assertFalse(rejected);
+        Assert.assertTrue(filter.mightBeRevoked(falsePositive));
+    }
+
+    @Test
+    public void rotationAgesOutOldRevocations() {
+        // Given
+        RevokedSessionFilter filter = new RevokedSessionFilter(2, 1.0E-6, 10, Duration.ofMinutes(1));
+        long filterBytes = filter.getFilterSizeInBytes();
+        for (int i = 0; i < 4; i++) {
+            filter.revoke("session-" + i);
+        }
+        Assert.assertTrue(filter.mightBeRevoked("session-0"));
+        Assert.assertTrue(filter.mightBeRevoked("session-3"));
+
+        // When a third generation starts
+        filter.revoke("session-4");
+
+        // Then the first generation is no longer checked
+        Assert.assertFalse(filter.mightBeRevoked("session-0"));
+        Assert.assertFalse(filter.mightBeRevoked("session-1"));
+        Assert.assertTrue(filter.mightBeRevoked("session-4"));
+        Assert.assertEquals(filterBytes, filter.getFilterSizeInBytes());
+    }
+
+    @Test
+    public void revocationIsRejectedOnlyWhileNegativeCacheHoldsIt() throws InterruptedException {
+        // Given
+        RevokedSessionFilter filter = new RevokedSessionFilter(10, 1.0E-6, 10, Duration.ofMillis(20));
+        filter.revoke("session-1");
+        Assert.assertTrue(filter.isRejected("session-1"));
+
+        // When
+        Thread.sleep(40);
+
+        // Then the filter still sends the session to the platform, but no longer rejects it by itself
+        Assert.assertTrue(filter.mightBeRevoked("session-1"));
+        Assert.assertFalse(filter.isRejected("session-1"));
+    }
+
+    @Test
+    public void invalidSessionExpiresFromNegativeCache() throws InterruptedException {
+        // Given
+        RevokedSessionFilter filter = new RevokedSessionFilter(10, 1.0E-6, 10, Duration.ofMillis(20));
+        filter.rememberInvalid("session-1");
+        Assert.assertTrue(filter.isRejected("session-1"));
+        Assert.assertFalse(filter.mightBeRevoked("session-1"));
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        Assert.assertFalse(filter.isRejected("session-1"));
+    }
+
+    @Test
+    public void nullIsNeverRejected() {
+        // Given
+        RevokedSessionFilter filter = new RevokedSessionFilter();
+
+        // When
+        filter.revoke(null);
+
+        // Then
+        Assert.assertFalse(filter.isRejected(null));
+        Assert.assertEquals(0, filter.getRejectionCount());
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallsAreCoalesced() throws Exception {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> first = executor.submit(() -> flights.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "value";
+        }));
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> second = executor.submit(() -> flights.execute("key", () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        while (flights.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // Then
+        Assert.assertEquals("value", first.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("value", second.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, flights.getExecutionCount());
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void failureIsRethrownToEveryWaiter() throws Exception {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> flights.execute("key", () -> {
+            started.countDown();
+            release.await();
+            throw new IllegalStateException("platform down");
+        }));
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> second = executor.submit(() -> flights.execute("key", () -> "unused"));
+        while (flights.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // Then
+        for (Future<String> caller : List.of(first, second)) {
+            ExecutionException failure = Assert.assertThrows(ExecutionException.class,
+                    () -> caller.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(failure.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("platform down", failure.getCause().getMessage());
+        }
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void checkedExceptionIsWrapped() {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+
+        // When
+        ExecutionException failure = Assert.assertThrows(ExecutionException.class,
+                () -> flights.execute("key", () -> {
+                    throw new IOException("closed");
+                }));
+
+        // Then
+        Assert.assertTrue(failure.getCause() instanceof IOException);
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void waiterRetriesWhenRunnerIsInterrupted() throws Exception {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> flights.execute("key", () -> {
+            started.countDown();
+            new CountDownLatch(1).await();
+            return "never";
+        }));
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> second = executor.submit(() -> flights.execute("key", () -> "retried"));
+        while (flights.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        // When
+        first.cancel(true);
+
+        // Then
+        Assert.assertEquals("retried", second.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, flights.getExecutionCount());
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void executeAsyncSharesFlightAndCleansUp() throws Exception {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        CompletableFuture<String> first = flights.executeAsync("key", key -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = flights.executeAsync("key", key -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        Assert.assertEquals(1, flights.getInFlightCount());
+        pending.complete("value");
+
+        // Then
+        Assert.assertSame(first, second);
+        Assert.assertEquals("value", first.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void executeAsyncCleansUpAfterFailure() {
+        // Given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+
+        // When
+        CompletableFuture<String> failed = flights.executeAsync("key",
+                key -> CompletableFuture.failedFuture(new IllegalStateException("platform down")));
+        CompletableFuture<String> thrown = flights.executeAsync("other", key -> {
+            throw new IllegalArgumentException("bad key");
+        });
+
+        // Then
+        ExecutionException failure = Assert.assertThrows(ExecutionException.class, failed::get);
+        Assert.assertTrue(failure.getCause() instanceof IllegalStateException);
+        failure = Assert.assertThrows(ExecutionException.class, thrown::get);
+        Assert.assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        Assert.assertEquals(0, flights.getInFlightCount());
+    }
+
+}
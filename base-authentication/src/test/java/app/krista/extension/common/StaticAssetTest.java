@@ -0,0 +1,94 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StaticAssetTest {
+
+    private static final byte[] SCRIPT = "function authenticate() { return 'authenticated'; }\n".repeat(20)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void eTagIsContentHash() {
+        // When
+        StaticAsset first = StaticAsset.of("text/javascript", "no-cache", SCRIPT);
+        StaticAsset second = StaticAsset.of("text/javascript", "no-cache", SCRIPT.clone());
+        StaticAsset other = StaticAsset.of("text/javascript", "no-cache", "other".getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        Assert.assertEquals(first.getETag(), second.getETag());
+        Assert.assertNotEquals(first.getETag(), other.getETag());
+        Assert.assertTrue(first.getETag().matches("\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    public void gzipIsKeptOnlyWhenSmaller() {
+        // When
+        StaticAsset compressible = StaticAsset.of("text/javascript", "no-cache", SCRIPT);
+        StaticAsset tiny = StaticAsset.of("text/plain", "no-cache", "a".getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        Assert.assertTrue(compressible.getGzipSize() > 0);
+        Assert.assertTrue(compressible.getGzipSize() < compressible.getSize());
+        Assert.assertEquals(-1, tiny.getGzipSize());
+    }
+
+    @Test
+    public void isNotModified() {
+        // Given
+        StaticAsset asset = StaticAsset.of("text/javascript", "no-cache", SCRIPT);
+        String eTag = asset.getETag();
+        String gzipETag = eTag.substring(0, eTag.length() - 1) + "-gz\"";
+
+        // Then
+        Assert.assertTrue(asset.isNotModified(eTag));
+        Assert.assertTrue(asset.isNotModified(gzipETag));
+        Assert.assertTrue(asset.isNotModified("W/" + eTag));
+        Assert.assertTrue(asset.isNotModified("\"stale\", " + eTag));
+        Assert.assertTrue(asset.isNotModified("*"));
+        Assert.assertFalse(asset.isNotModified("\"stale\""));
+        Assert.assertFalse(asset.isNotModified(null));
+        Assert.assertFalse(asset.isNotModified(""));
+    }
+
+    @Test
+    public void acceptsGzip() {
+        // Then
+        Assert.assertTrue(StaticAsset.acceptsGzip("gzip, deflate, br"));
+        Assert.assertTrue(StaticAsset.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        Assert.assertTrue(StaticAsset.acceptsGzip("*"));
+        Assert.assertFalse(StaticAsset.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(StaticAsset.acceptsGzip("*, gzip;q=0.0"));
+        Assert.assertFalse(StaticAsset.acceptsGzip("identity"));
+        Assert.assertFalse(StaticAsset.acceptsGzip(null));
+    }
+
+    @Test
+    public void loadMissingResource() {
+        // When
+        StaticAsset asset = StaticAsset.load(getClass().getClassLoader(), "missing.js", "text/javascript", "no-cache");
+
+        // Then
+        Assert.assertNull(asset);
+    }
+
+}
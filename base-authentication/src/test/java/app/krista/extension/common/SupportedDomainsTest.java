@@ -0,0 +1,141 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.ksdk.authentication.AuthenticationSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SupportedDomainsTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final List<List<String>> writes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failWrites = new AtomicBoolean();
+    private volatile CountDownLatch writeStarted = new CountDownLatch(0);
+    private volatile CountDownLatch releaseWrite = new CountDownLatch(0);
+    private final AuthenticationSettings settings = (AuthenticationSettings) Proxy.newProxyInstance(
+            AuthenticationSettings.class.getClassLoader(), new Class<?>[]{AuthenticationSettings.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getSupportedDomains")) {
+                    reads.incrementAndGet();
+                    return List.of("Example.com", "kristasoft.com");
+                }
+                if (method.getName().equals("addSupportedDomains")) {
+                    if (failWrites.get()) {
+                        throw new IllegalStateException("Settings unavailable.");
+                    }
+                    writeStarted.countDown();
+                    releaseWrite.await();
+                    writes.add(Arrays.asList((String[]) args[0]));
+                }
+                return null;
+            });
+
+    @Test
+    public void getSnapshotReadsSettingsOncePerInterval() throws Exception {
+        // Given
+        SupportedDomains supportedDomains = new SupportedDomains(Duration.ofMinutes(1));
+
+        // When
+        SupportedDomains.Snapshot first = supportedDomains.getSnapshot(settings);
+        SupportedDomains.Snapshot second = supportedDomains.getSnapshot(settings);
+
+        // Then
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, reads.get());
+        Assert.assertEquals(List.of("example.com", "kristasoft.com"), first.getDomains());
+        Assert.assertTrue(first.contains("EXAMPLE.COM"));
+        Assert.assertTrue(first.getMatcher().matchesEmail("jane@Example.com"));
+        Assert.assertFalse(first.getMatcher().matchesEmail("jane@other.org"));
+    }
+
+    @Test
+    public void registerDoesNotWaitForTheWrite() throws Exception {
+        // Given a settings write that does not finish until released
+        SupportedDomains supportedDomains = new SupportedDomains(Duration.ofMinutes(1));
+        supportedDomains.getSnapshot(settings);
+        writeStarted = new CountDownLatch(1);
+        releaseWrite = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<Boolean> registration = supportedDomains.register("new.org", settings);
+
+        // Then
+        Assert.assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(registration.isDone());
+        Assert.assertFalse(supportedDomains.getSnapshot(settings).contains("new.org"));
+        releaseWrite.countDown();
+        Assert.assertEquals(Boolean.TRUE, registration.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(supportedDomains.getSnapshot(settings).contains("new.org"));
+    }
+
+    @Test
+    public void registerWritesNewDomainOnce() throws Exception {
+        // Given
+        SupportedDomains supportedDomains = new SupportedDomains(Duration.ofMinutes(1));
+        supportedDomains.getSnapshot(settings);
+        releaseWrite = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> registrations = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            registrations.add(supportedDomains.register(" NEW.org", settings));
+            registrations.add(supportedDomains.register("kristasoft.com", settings));
+        }
+        releaseWrite.countDown();
+        CompletableFuture.allOf(registrations.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Then
+        Assert.assertTrue(supportedDomains.getSnapshot(settings).contains("new.org"));
+        Assert.assertEquals(List.of(List.of("new.org")), writes);
+    }
+
+    @Test
+    public void failedRegistrationIsNotRemembered() throws Exception {
+        // Given
+        SupportedDomains supportedDomains = new SupportedDomains(Duration.ofMinutes(1));
+        supportedDomains.getSnapshot(settings);
+        failWrites.set(true);
+
+        // When
+        ExecutionException failure = Assert.assertThrows(ExecutionException.class,
+                () -> supportedDomains.register("new.org", settings).get(5, TimeUnit.SECONDS));
+
+        // Then
+        Assert.assertEquals("Settings unavailable.", failure.getCause().getMessage());
+        Assert.assertFalse(supportedDomains.getSnapshot(settings).contains("new.org"));
+        failWrites.set(false);
+        supportedDomains.register("new.org", settings).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(supportedDomains.getSnapshot(settings).contains("new.org"));
+        Assert.assertEquals(List.of(List.of("new.org")), writes);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TemplateTest {
+
+    @Test
+    public void renderReplacesPlaceholders() {
+        // Given
+        Template template = Template.compile("Hello {{ name }}, welcome to {{place}}. Bye {{name}}!");
+
+        // When
+        String rendered = template.render(Map.of("name", "Jane", "place", "Krista"));
+
+        // Then
+        Assert.assertEquals("Hello Jane, welcome to Krista. Bye Jane!", rendered);
+        Assert.assertEquals(Set.of("name", "place"), template.getNames());
+    }
+
+    @Test
+    public void renderWithoutPlaceholders() {
+        // When
+        Template template = Template.compile("const a = { b: {} };");
+
+        // Then
+        Assert.assertEquals("const a = { b: {} };", template.render(Map.of()));
+        Assert.assertTrue(template.getNames().isEmpty());
+    }
+
+    @Test
+    public void unclosedPlaceholderIsLiteral() {
+        // When
+        Template template = Template.compile("{{name}} and {{rest");
+
+        // Then
+        Assert.assertEquals("x and {{rest", template.render(Map.of("name", "x")));
+        Assert.assertEquals(List.of("name"), List.copyOf(template.getNames()));
+    }
+
+    @Test
+    public void missingValueIsRejected() {
+        // Given
+        Template template = Template.compile("Hello {{name}}");
+
+        // When
+        IllegalArgumentException error =
+                Assert.assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+
+        // Then
+        Assert.assertEquals("Missing template value: name", error.getMessage());
+    }
+
+    @Test
+    public void emptyPlaceholderIsRejected() {
+        // Then
+        Assert.assertThrows(IllegalArgumentException.class, () -> Template.compile("Hello {{ }}"));
+    }
+
+    @Test
+    public void escapeHtml() {
+        // Then
+        Assert.assertEquals("Enter email", Template.escapeHtml("Enter email"));
+        Assert.assertEquals("&lt;b title=&quot;a&#39;s&quot;&gt;&amp;&lt;/b&gt;",
+                Template.escapeHtml("<b title=\"a's\">&</b>"));
+        Assert.assertEquals("&#96;&#36;{x}&#92;", Template.escapeHtml("`${x}\\"));
+    }
+
+}
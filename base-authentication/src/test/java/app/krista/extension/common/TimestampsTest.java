@@ -0,0 +1,112 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extension.common;
+
+import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampsTest {
+
+    @Test
+    public void now() {
+        // Given
+        Timestamps timestamps = new Timestamps(Clock.fixed(Instant.parse("2026-01-15T10:00:00.750Z"), ZoneOffset.UTC));
+
+        // When
+        String now = timestamps.now();
+
+        // Then
+        Assert.assertEquals("2026-01-15T10:00:00 +0000", now);
+    }
+
+    @Test
+    public void nowIsCachedForTheCurrentSecond() {
+        // Given
+        AtomicLong millis = new AtomicLong(Instant.parse("2026-01-15T10:00:00Z").toEpochMilli());
+        Timestamps timestamps = new Timestamps(new TickingClock(millis));
+
+        // When
+        String first = timestamps.now();
+        millis.addAndGet(999);
+        String sameSecond = timestamps.now();
+        millis.addAndGet(1);
+        String nextSecond = timestamps.now();
+
+        // Then
+        Assert.assertSame(first, sameSecond);
+        Assert.assertEquals("2026-01-15T10:00:01 +0000", nextSecond);
+    }
+
+    @Test
+    public void nowMatchesSimpleDateFormat() {
+        // Given
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss Z");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        Random random = new Random(7);
+
+        for (int i = 0; i < 1000; i++) {
+            long millis = Math.floorMod(random.nextLong(), 4_102_444_800_000L); //up to 2100
+            // When
+            String now = new Timestamps(Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC)).now();
+
+            // Then
+            Assert.assertEquals(dateFormat.format(new Date(millis)), now);
+        }
+    }
+
+    private static final class TickingClock extends Clock {
+
+        private final AtomicLong millis;
+
+        private TickingClock(AtomicLong millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import app.krista.extension.authorization.AuthorizationException;
+import app.krista.extension.common.EmailAddresses;
+import app.krista.extension.common.ExpiringCache;
+import app.krista.extension.common.SingleFlight;
+
+/**
+ * Cache of {@link AccountProfile}s by workspace and normalized email address, in front of
+ * {@code AccountManager.lookupAccount}.
+ * <p>
+ * Entries live for {@code krista.authentication.accountCache.timeToLiveSeconds} (default 300) and the cache holds
+ * at most {@code krista.authentication.accountCache.maximumSize} (default 10000) profiles. Logins replace the entry
+ * whenever they create an account or change its roles.
+ */
+class AccountCache {
+
+    static final AccountCache INSTANCE = new AccountCache(
+            Integer.getInteger("krista.authentication.accountCache.maximumSize", 10_000),
+            Duration.ofSeconds(Long.getLong("krista.authentication.accountCache.timeToLiveSeconds", 300)));
+
+    private final ExpiringCache<String, AccountProfile> profiles;
+    private final SingleFlight<String, AccountProfile> provisionings = new SingleFlight<>();
+
+    AccountCache(int maximumSize, Duration timeToLive) {
+        this.profiles = new ExpiringCache<>(maximumSize, timeToLive);
+    }
+
+    AccountProfile get(String workspaceId, String email) {
+        return profiles.get(key(workspaceId, email));
+    }
+
+    void put(String workspaceId, String email, AccountProfile profile) {
+        profiles.put(key(workspaceId, email), profile);
+    }
+
+    /**
+     * Runs {@code provisioning} for the account, sharing one run between concurrent callers for the same
+     * workspace and email so the account is created only once.
+     */
+    AccountProfile provision(String workspaceId, String email, Callable<AccountProfile> provisioning)
+            throws AuthorizationException {
+        return Coalescing.execute(provisionings, key(workspaceId, email), provisioning);
+    }
+
+    void invalidate(String workspaceId, String email) {
+        profiles.invalidate(key(workspaceId, email));
+    }
+
+    ExpiringCache<String, AccountProfile> getProfiles() {
+        return profiles;
+    }
+
+    SingleFlight<String, AccountProfile> getProvisionings() {
+        return provisionings;
+    }
+
+    private static String key(String workspaceId, String email) {
+        return (workspaceId == null ? "" : workspaceId) + '/' + EmailAddresses.normalizeEmailAddress(email);
+    }
+
+}
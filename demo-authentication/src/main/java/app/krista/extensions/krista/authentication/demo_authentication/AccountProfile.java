@@ -0,0 +1,92 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.util.List;
+import app.krista.ksdk.accounts.Account;
+
+/**
+ * Immutable snapshot of the account fields a login needs, so a cached login does not touch the platform account.
+ */
+class AccountProfile {
+
+    private final String accountId;
+    private final String personId;
+    private final String personName;
+    private final String avatarUrl;
+    private final String inboxId;
+    private final String primaryEmailAddress;
+    private final List<String> roleIds;
+    private final boolean workspaceAdmin;
+
+    AccountProfile(String accountId, String personId, String personName, String avatarUrl, String inboxId,
+            String primaryEmailAddress, List<String> roleIds, boolean workspaceAdmin) {
+        this.accountId = accountId;
+        this.personId = personId;
+        this.personName = personName;
+        this.avatarUrl = avatarUrl;
+        this.inboxId = inboxId;
+        this.primaryEmailAddress = primaryEmailAddress;
+        this.roleIds = List.copyOf(roleIds);
+        this.workspaceAdmin = workspaceAdmin;
+    }
+
+    static AccountProfile of(Account account, List<String> roleIds, boolean workspaceAdmin) {
+        return new AccountProfile(account.getAccountId(), account.getPerson().getPersonId(),
+                account.getPerson().getPersonName(), account.getPerson().getAvatarUrl(), account.getInboxId(),
+                account.getPrimaryEmailAddress(), roleIds, workspaceAdmin);
+    }
+
+    String getAccountId() {
+        return accountId;
+    }
+
+    String getPersonId() {
+        return personId;
+    }
+
+    String getPersonName() {
+        return personName;
+    }
+
+    String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    String getInboxId() {
+        return inboxId;
+    }
+
+    String getPrimaryEmailAddress() {
+        return primaryEmailAddress;
+    }
+
+    List<String> getRoleIds() {
+        return roleIds;
+    }
+
+    boolean isWorkspaceAdmin() {
+        return workspaceAdmin;
+    }
+
+    boolean hasRole(String roleId) {
+        return roleIds.contains(roleId);
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import app.krista.extension.common.AuthenticationResponse;
+import app.krista.extension.common.AuthenticationResponseEncoder;
+
+/**
+ * Writes {@link AuthenticationResponse} entities with {@link AuthenticationResponseEncoder}, straight to the response
+ * stream.
+ */
+@Produces(MediaType.APPLICATION_JSON)
+public class AuthenticationResponseBodyWriter implements MessageBodyWriter<AuthenticationResponse> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return AuthenticationResponse.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(AuthenticationResponse authenticationResponse, Class<?> type, Type genericType,
+            Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+            OutputStream entityStream) throws IOException {
+        AuthenticationResponseEncoder.write(authenticationResponse, entityStream);
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import app.krista.extension.common.AuthenticationResponse;
+import app.krista.extension.common.AuthenticationResponseEncoder;
+import app.krista.extension.common.ExtensionLogger;
+import app.krista.model.field.util.GsonJsonMapper;
+
+/**
+ * Logs in the emails of a batch concurrently and writes one newline-delimited JSON line per email as soon as its
+ * login completes: {@code {"email": ..., "authentication": {...}}} or {@code {"email": ..., "error": ...}}. The
+ * authentication is written with {@link AuthenticationResponseEncoder}, like the single login response.
+ * <p>
+ * At most {@code krista.authentication.batchLogin.concurrency} (default 16) logins run at once. A login is only
+ * handed to a thread once a permit is free; while none is, finished logins are written out, so threads never
+ * park waiting for a permit. The logins run after the resource method has returned, so they may only use the
+ * injected platform services; request-bound values are captured by the caller beforehand.
+ */
+final class BatchLogin {
+
+    static final int CONCURRENCY =
+            Math.max(1, Integer.getInteger("krista.authentication.batchLogin.concurrency", 16));
+    static final BatchLogin INSTANCE = new BatchLogin(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("krista-batch-login-", 0).factory()),
+            CONCURRENCY);
+
+    private static final GsonJsonMapper GSON_JSON_MAPPER = GsonJsonMapper.create();
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(BatchLogin.class);
+
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    BatchLogin(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = concurrency;
+    }
+
+    interface Login {
+
+        AuthenticationResponse login(String email) throws Exception;
+
+    }
+
+    void write(OutputStream output, Collection<String> emails, Login login) throws IOException {
+        long startedAt = System.nanoTime();
+        Semaphore permits = new Semaphore(concurrency);
+        CompletionService<Result> completed = new ExecutorCompletionService<>(executor);
+        List<Future<Result>> logins = new ArrayList<>(emails.size());
+        OutputStream writer = new BufferedOutputStream(output);
+        int written = 0;
+        int failures = 0;
+        try {
+            for (String email : emails) {
+                // A permit is released before its login completes, so every take() frees one.
+                while (!permits.tryAcquire()) {
+                    failures += writeLine(writer, completed.take().get());
+                    written++;
+                }
+                logins.add(completed.submit(() -> {
+                    try {
+                        return login(email, login);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (; written < logins.size(); written++) {
+                failures += writeLine(writer, completed.take().get());
+            }
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while logging in users.", cause);
+        } catch (ExecutionException cause) {
+            throw new IOException("Failed to log in users.", cause.getCause());
+        } finally {
+            // No further logins are submitted once the client went away. Started ones are not interrupted: they may
+            // be running an AccountCache provisioning that other users' logins are waiting on.
+            for (Future<Result> pending : logins) {
+                pending.cancel(false);
+            }
+            LOGGER.log(ExtensionLogger.Level.INFO, "login.batch", "emails", emails.size(), "failures", failures,
+                    "latencyMillis", (System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    private static Result login(String email, Login login) {
+        try {
+            return new Result(email, login.login(email), null);
+        } catch (Exception cause) {
+            LOGGER.log(ExtensionLogger.Level.WARN, "login.batch.failed", cause, "email",
+                    ExtensionLogger.hash(email));
+            return new Result(email, null,
+                    cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+        }
+    }
+
+    private static int writeLine(OutputStream writer, Result result) throws IOException {
+        writer.write(ascii("{\"email\":"));
+        writer.write(json(result.email));
+        if (result.authentication != null) {
+            writer.write(ascii(",\"authentication\":"));
+            AuthenticationResponseEncoder.write(result.authentication, writer);
+        }
+        if (result.error != null) {
+            writer.write(ascii(",\"error\":"));
+            writer.write(json(result.error));
+        }
+        writer.write(ascii("}\n"));
+        writer.flush();
+        return result.error == null ? 0 : 1;
+    }
+
+    private static byte[] json(String value) {
+        return GSON_JSON_MAPPER.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Result {
+
+        private final String email;
+        private final AuthenticationResponse authentication;
+        private final String error;
+
+        private Result(String email, AuthenticationResponse authentication, String error) {
+            this.email = email;
+            this.authentication = authentication;
+            this.error = error;
+        }
+
+    }
+
+}
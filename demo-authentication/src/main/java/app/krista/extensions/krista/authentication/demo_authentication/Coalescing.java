@@ -0,0 +1,50 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import app.krista.extension.authorization.AuthorizationException;
+import app.krista.extension.common.SingleFlight;
+
+/**
+ * Runs login provisioning steps through a {@link SingleFlight}, restoring the exceptions the steps themselves throw.
+ */
+final class Coalescing {
+
+    private Coalescing() {
+    }
+
+    static <T> T execute(SingleFlight<String, T> flights, String key, Callable<T> call)
+            throws AuthorizationException {
+        try {
+            return flights.execute(key, call);
+        } catch (ExecutionException cause) {
+            Throwable failure = cause.getCause() == null ? cause : cause.getCause();
+            if (failure instanceof AuthorizationException) {
+                throw (AuthorizationException) failure;
+            }
+            throw new IllegalStateException("Failed to provision " + key + ".", failure);
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while provisioning " + key + ".", cause);
+        }
+    }
+
+}
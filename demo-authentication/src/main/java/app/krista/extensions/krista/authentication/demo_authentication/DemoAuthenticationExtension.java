@@ -28,6 +28,10 @@ import app.krista.ksdk.context.AuthorizationContext;
 @SuppressWarnings("deprecation")
 @Java(version = Java.Version.JAVA_21)
 @Field(name = DemoAuthenticationExtension.DEFAULT_ROLE_KEY, type = "Text", required = false)
+@Field(name = DemoAuthenticationExtension.ALLOWED_ORIGINS_KEY, type = "Text", required = false)
+@Field(name = DemoAuthenticationExtension.LOGIN_FORM_FIELDS_KEY, type = "Text", required = false)
+@Field(name = DemoAuthenticationExtension.LOGIN_ROLE_HINT_KEY, type = "Text", required = false)
+@Field(name = DemoAuthenticationExtension.IMPORTABLE_ROLES_KEY, type = "Text", required = false)
 @Domain(id = "catEntryDomain_db053e8f-a194-4dde-aa6f-701ef7a6b3a7",
         name = "Authentication",
         ecosystemId = "catEntryEcosystem_d3b05047-07b0-4b06-95a3-9fb8f7f608d9",
@@ -38,6 +42,11 @@ import app.krista.ksdk.context.AuthorizationContext;
 public class DemoAuthenticationExtension {
 
     public static final String DEFAULT_ROLE_KEY = "default_role";
+    public static final String ALLOWED_ORIGINS_KEY = "allowed_origins";
+    public static final String LOGIN_FORM_FIELDS_KEY = "login_form_fields";
+    public static final String LOGIN_ROLE_HINT_KEY = "login_role_hint";
+    public static final String IMPORTABLE_ROLES_KEY = "importable_roles";
+    public static final String DEFAULT_ROLE_NAME = "Krista Client User";
 
     private final AuthorizationContext authorizationContext;
     private final SessionManager sessionManager;
@@ -0,0 +1,91 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import app.krista.extension.common.StaticAsset;
+
+/**
+ * The fingerprinted docs assets produced by the {@code bundleDocs} Gradle task, held in memory with their gzip
+ * encodings. A fingerprinted name changes whenever the content does, so the assets are cacheable forever.
+ */
+final class DocsBundle {
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String DIRECTORY = "docs-bundle/";
+    private static final Map<String, StaticAsset> ASSETS = load(DocsBundle.class.getClassLoader());
+
+    private DocsBundle() {
+    }
+
+    /**
+     * @return the asset with the given fingerprinted name, or {@code null} when the bundle has no such asset.
+     */
+    static StaticAsset getAsset(String name) {
+        return name == null ? null : ASSETS.get(name);
+    }
+
+    private static Map<String, StaticAsset> load(ClassLoader classLoader) {
+        Map<String, StaticAsset> assets = new HashMap<>();
+        InputStream manifest = classLoader.getResourceAsStream(DIRECTORY + "manifest.txt");
+        if (manifest == null) {
+            return assets;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(manifest, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (separator < 0) {
+                    continue;
+                }
+                String name = line.substring(separator + 1).trim();
+                StaticAsset asset =
+                        StaticAsset.load(classLoader, DIRECTORY + name, getContentType(name), CACHE_CONTROL);
+                if (asset != null) {
+                    assets.put(name, asset);
+                }
+            }
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Could not read the docs bundle manifest.", cause);
+        }
+        return Map.copyOf(assets);
+    }
+
+    private static String getContentType(String name) {
+        if (name.endsWith(".js")) {
+            return "text/javascript; charset=UTF-8";
+        }
+        if (name.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        }
+        if (name.endsWith(".html")) {
+            return "text/html; charset=UTF-8";
+        }
+        return "application/octet-stream";
+    }
+
+}
@@ -22,6 +22,7 @@ import app.krista.extension.authorization.MustAuthenticateException;
 import app.krista.extension.authorization.MustAuthorizeException;
 import app.krista.extension.authorization.RequestAuthenticator;
 import app.krista.extension.common.ClientSessionUtil;
+import app.krista.extension.common.ExtensionLogger;
 import app.krista.extension.request.ProtoRequest;
 import app.krista.extension.request.ProtoResponse;
 import app.krista.extension.request.protos.http.HttpRequest;
@@ -38,6 +39,14 @@ import java.util.concurrent.ExecutionException;
 @SuppressWarnings("deprecation")
 public class ExtensionRequestAuthenticator implements RequestAuthenticator {
 
+    /**
+     * Largest declared body that is buffered for later stages; bigger declared bodies are streamed through.
+     */
+    static final long MAX_BUFFERED_BODY_BYTES =
+            Long.getLong("krista.authentication.maxBufferedBodyBytes", 1024 * 1024);
+
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(ExtensionRequestAuthenticator.class);
+
     private final AuthorizationContext authorizationContext;
     private final SessionManager sessionManager;
 
@@ -57,19 +66,27 @@ public class ExtensionRequestAuthenticator implements RequestAuthenticator {
         return null;
     }
 
+    /**
+     * Called synchronously by the platform, which waits for the answer, so there is no asynchronous variant: a
+     * future would only move the wait. The session lookup is cached and coalesced instead, see
+     * {@link ClientSessionUtil}.
+     */
     @Override
     public String getAuthenticatedAccountId(ProtoRequest protoRequest) {
+        long startedAt = System.nanoTime();
         try {
             HttpRequest httpRequest = (HttpRequest) protoRequest;
-            httpRequest.bufferBody();
             String authenticatedAccountId = ClientSessionUtil.getAuthenticatedAccountId(sessionManager, httpRequest);
             if (authenticatedAccountId == null) {
                 authenticatedAccountId = handleLoginRequest(httpRequest);
             }
-            System.out.println("Get Authenticated AccountId: " + authenticatedAccountId);
+            if (authenticatedAccountId != null) {
+                bufferBodyIfNeeded(httpRequest);
+            }
+            logAuthenticated(httpRequest, authenticatedAccountId, startedAt);
             return authenticatedAccountId;
         } catch (IOException | ExecutionException | InterruptedException cause) {
-            cause.printStackTrace();
+            LOGGER.log(ExtensionLogger.Level.ERROR, "authenticate.failed", cause);
             throw new IllegalStateException("Failed to authenticate." +
                     (cause.getMessage() == null || cause.getMessage().isBlank() ? "" : cause.getMessage()), cause);
         }
@@ -106,17 +123,73 @@ public class ExtensionRequestAuthenticator implements RequestAuthenticator {
         return null;
     }
 
+    private static void logAuthenticated(HttpRequest httpRequest, String accountId, long startedAt) {
+        if (LOGGER.isEnabled(ExtensionLogger.Level.DEBUG)) {
+            LOGGER.log(ExtensionLogger.Level.DEBUG, "authenticate",
+                    "path", httpRequest.getUri() == null ? null : httpRequest.getUri().getPath(),
+                    "accountHash", ExtensionLogger.hash(accountId),
+                    "latencyMicros", (System.nanoTime() - startedAt) / 1000);
+        }
+    }
+
+    /**
+     * Buffers the body only once the request has been authenticated from its headers. A declared length above
+     * {@link #MAX_BUFFERED_BODY_BYTES} is streamed through; a body of unknown length is buffered as before, since
+     * {@link HttpRequest#bufferBody()} offers no bounded variant and later stages may still need it.
+     */
+    private void bufferBodyIfNeeded(HttpRequest httpRequest) throws IOException {
+        if (shouldBufferBody(httpRequest.getHeaders())) {
+            httpRequest.bufferBody();
+        }
+    }
+
+    static boolean shouldBufferBody(Map<String, String> headers) {
+        long contentLength = getContentLength(headers);
+        return contentLength < 0 || (contentLength > 0 && contentLength <= MAX_BUFFERED_BODY_BYTES);
+    }
+
+    private static long getContentLength(Map<String, String> headers) {
+        if (headers == null) {
+            return -1;
+        }
+        String contentLength = headers.get("Content-Length");
+        if (contentLength == null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if ("Content-Length".equalsIgnoreCase(header.getKey())) {
+                    contentLength = header.getValue();
+                    break;
+                }
+            }
+        }
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException cause) {
+            return -1;
+        }
+    }
+
     private String handleLoginRequest(ProtoRequest protoRequest) {
         if (!(protoRequest instanceof HttpRequest)) {
             return null;
         }
-        String path = ((HttpRequest) protoRequest).getUri().getPath();
-        System.out.println(path);
-        if (Objects.equals("/login", path) || Objects.equals("/docs", path) || Objects.equals("/docs/", path)) {
-            System.out.println("Authorization Context: " + authorizationContext.getAuthorizedAccount().getAccountId());
+        if (isLoginPath(((HttpRequest) protoRequest).getUri().getPath())) {
             return authorizationContext.getAuthorizedAccount().getAccountId();
         }
         return null;
     }
 
+    /**
+     * @return whether the path is served to the extension's own account: the login endpoints, the docs page and the
+     * fingerprinted docs assets under {@code /docs/bundle/}. Every other path, {@code /users/import} included, needs
+     * the caller's own session.
+     */
+    static boolean isLoginPath(String path) {
+        return Objects.equals("/login", path) || Objects.equals("/login/batch", path)
+                || Objects.equals("/docs", path) || Objects.equals("/docs/", path)
+                || (path != null && path.startsWith("/docs/bundle/") && !path.contains(".."));
+    }
+
 }
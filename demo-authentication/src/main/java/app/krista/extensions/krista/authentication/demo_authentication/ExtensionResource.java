@@ -18,40 +18,56 @@
 
 package app.krista.extensions.krista.authentication.demo_authentication;
 
+import java.io.BufferedWriter;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.http.HttpHeaders;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import app.krista.extension.authorization.AuthorizationException;
 import app.krista.extension.common.AuthenticationResponse;
+import app.krista.extension.common.ClientSessionUtil;
 import app.krista.extension.common.CommonUtils;
+import app.krista.extension.common.CorsPolicy;
+import app.krista.extension.common.DomainMatcher;
+import app.krista.extension.common.EmailValidator;
+import app.krista.extension.common.ExtensionLogger;
+import app.krista.extension.common.StaticAsset;
+import app.krista.extension.common.SupportedDomains;
+import app.krista.extension.common.Timestamps;
 import app.krista.extension.executor.Invoker;
-import app.krista.ksdk.accounts.Account;
 import app.krista.ksdk.accounts.AccountManager;
 import app.krista.ksdk.accounts.ModifiableAccount;
 import app.krista.ksdk.authentication.AuthenticationSettings;
 import app.krista.ksdk.authentication.SessionManager;
-import app.krista.ksdk.authorization.ModifiableRole;
 import app.krista.ksdk.authorization.Role;
 import app.krista.ksdk.authorization.RoleManager;
 import app.krista.ksdk.context.AuthorizationContext;
 import app.krista.ksdk.context.RuntimeContext;
-import app.krista.model.field.util.GsonJsonMapper;
 
 @SuppressWarnings("deprecation")
 @Path("/")
 public class ExtensionResource {
 
-    private final static GsonJsonMapper GSON_JSON_MAPPER = GsonJsonMapper.create();
-    private final static String DEFAULT_ROLE = "Krista Client User";
+    private final static String DEFAULT_ROLE = DemoAuthenticationExtension.DEFAULT_ROLE_NAME;
+    private final static int BATCH_LOGIN_MAXIMUM_SIZE =
+            Integer.getInteger("krista.authentication.batchLogin.maximumSize", 1000);
+    private final static ExtensionLogger LOGGER = ExtensionLogger.getLogger(ExtensionResource.class);
+    private final static String NDJSON = "application/x-ndjson";
+    private final static String CSV = "text/csv";
+    private final static StaticAsset AUTHENTICATOR_SCRIPT = StaticAsset.load(ExtensionResource.class.getClassLoader(),
+            "authenticator.js", "text/javascript; charset=UTF-8",
+            "public, max-age=" + Long.getLong("krista.authentication.authenticator.maxAgeSeconds", 300));
     public static final String AUTHENTICATION_TYPE = "Demo Authentication";
     private final SessionManager sessionManager;
     private final AccountManager accountManager;
@@ -75,10 +91,29 @@ public class ExtensionResource {
         this.authorizationContext = authorizationContext;
     }
 
+    /**
+     * Serves the script from memory; browsers revalidate it with {@code If-None-Match} once
+     * {@code krista.authentication.authenticator.maxAgeSeconds} (default 300) have passed.
+     */
     @GET
     @Path("authenticator.js")
-    public InputStream getAuthenticator() {
-        return getClass().getClassLoader().getResourceAsStream("authenticator.js");
+    public Response getAuthenticator(@HeaderParam("If-None-Match") String ifNoneMatch,
+            @HeaderParam("Accept-Encoding") String acceptEncoding) {
+        return AUTHENTICATOR_SCRIPT.respond(ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Serves a fingerprinted docs asset; see {@link DocsBundle}.
+     */
+    @GET
+    @Path("docs/bundle/{name}")
+    public Response getDocsAsset(@PathParam("name") String name, @HeaderParam("If-None-Match") String ifNoneMatch,
+            @HeaderParam("Accept-Encoding") String acceptEncoding) {
+        StaticAsset asset = DocsBundle.getAsset(name);
+        if (asset == null) {
+            throw new NotFoundException();
+        }
+        return asset.respond(ifNoneMatch, acceptEncoding);
     }
 
     @GET
@@ -90,8 +125,8 @@ public class ExtensionResource {
     @OPTIONS
     @Path("/login")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response loginOptions(@Context HttpHeaders headers, String email) {
-        return getResponseBuilderWithCORSHeaders().build();
+    public Response loginOptions(@Context HttpHeaders headers, @HeaderParam("Origin") String origin, String email) {
+        return getCorsPolicy().preflight(origin);
     }
 
     /**
@@ -113,29 +148,131 @@ public class ExtensionResource {
     @Path("/login")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response login(@Context HttpHeaders headers, Map<String, String> loginInput) throws AuthorizationException {
+    public Response login(@Context HttpHeaders headers, @HeaderParam("Origin") String origin,
+            Map<String, String> loginInput) throws AuthorizationException {
         if (!authorizationContext.isWorkspaceAdmin()) {
             throw new IllegalArgumentException("Please provide workspace admin access");
         }
 
-        if (loginInput != null && loginInput.containsKey("email") && isEmailAddressValid(loginInput.get("email"))) {
+        if (loginInput != null && loginInput.containsKey("email")
+                && EmailValidator.isValidEmail(loginInput.get("email"))) {
             String email = loginInput.get("email");
-            addDomainToWorkspaceIfNotPresent(email);
-            Account account = getAccount(email.substring(0, email.indexOf("@")), email, getUserAgent(headers));
-            String sessionId = sessionManager.createSession(account.getAccountId());
-            AuthenticationResponse authenticationResponse = createAuthenticationResponse(account, sessionId);
-            return getResponseBuilderWithCORSHeaders().entity(GSON_JSON_MAPPER.toString(authenticationResponse))
-                    .build();
+            String workspaceId = runtimeContext.getWorkspaceId();
+            String defaultRole = getDefaultRole();
+            String kristaAccountId = runtimeContext.getKristaAccount().getAccountId();
+            AccountProfile cached = AccountCache.INSTANCE.get(workspaceId, email);
+            AccountProfile account;
+            // A login rejected for its domain must not get as far as creating the default role.
+            SupportedDomains supportedDomains = SupportedDomains.forWorkspace(workspaceId);
+            Collection<String> domains = validateDomains(supportedDomains, List.of(email));
+            // Domain registration, role ensure and account lookup are independent platform service calls.
+            try (FailFastScope scope = new FailFastScope()) {
+                scope.fork(() -> {
+                    registerDomains(supportedDomains, domains);
+                    return null;
+                });
+                CompletableFuture<String> defaultRoleId = scope.fork(() ->
+                        WorkspaceRoleIndex.forWorkspace(workspaceId).ensureRole(roleManager, defaultRole));
+                CompletableFuture<ModifiableAccount> existingAccount = cached == null
+                        ? scope.fork(() -> accountManager.lookupAccount(email))
+                        : CompletableFuture.completedFuture(null);
+                scope.join();
+                account = getAccountProfile(email.substring(0, email.indexOf("@")), email, getUserAgent(headers),
+                        workspaceId, defaultRoleId.resultNow(), cached, existingAccount.resultNow());
+            }
+            AuthenticationResponse authenticationResponse = startSession(workspaceId, email, account, kristaAccountId);
+            return getResponseBuilderWithCORSHeaders(origin).entity(authenticationResponse).build();
         }
         throw new IllegalArgumentException("Invalid email input.");
     }
 
+    @OPTIONS
+    @Path("/login/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response loginBatchOptions(@Context HttpHeaders headers, @HeaderParam("Origin") String origin,
+            String emails) {
+        return getCorsPolicy().preflight(origin);
+    }
+
+    /**
+     * Logs in many users at once, for example to prepare demo sessions before a workshop or a load test.
+     * <p>
+     * Takes {@code {"emails": [...]}}. All emails and their domains are validated before anything is created;
+     * domains and the default role are then set up once, and accounts and sessions are provisioned in parallel,
+     * at most {@code krista.authentication.batchLogin.concurrency} (default 16) at a time. The response is
+     * newline-delimited JSON with one line per distinct email, written as soon as that email completes: either
+     * {@code {"email": ..., "authentication": {...}}} or {@code {"email": ..., "error": ...}}.
+     */
+    @POST
+    @Path("/login/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(NDJSON)
+    public Response loginBatch(@Context HttpHeaders headers, @HeaderParam("Origin") String origin,
+            Map<String, List<String>> batchInput) throws AuthorizationException {
+        if (!authorizationContext.isWorkspaceAdmin()) {
+            throw new IllegalArgumentException("Please provide workspace admin access");
+        }
+        Collection<String> emails = getBatchEmails(batchInput);
+        String workspaceId = runtimeContext.getWorkspaceId();
+        String userAgent = getUserAgent(headers);
+        String defaultRole = getDefaultRole();
+        String kristaAccountId = runtimeContext.getKristaAccount().getAccountId();
+        SupportedDomains supportedDomains = SupportedDomains.forWorkspace(workspaceId);
+        Collection<String> domains = validateDomains(supportedDomains, emails);
+        String defaultRoleId;
+        try (FailFastScope scope = new FailFastScope()) {
+            scope.fork(() -> {
+                registerDomains(supportedDomains, domains);
+                return null;
+            });
+            CompletableFuture<String> defaultRoleIdResult = scope.fork(() ->
+                    WorkspaceRoleIndex.forWorkspace(workspaceId).ensureRole(roleManager, defaultRole));
+            scope.join();
+            defaultRoleId = defaultRoleIdResult.resultNow();
+        }
+        StreamingOutput results = output -> BatchLogin.INSTANCE.write(output, emails, email -> startSession(
+                workspaceId, email, getAccountProfile(email.substring(0, email.indexOf("@")), email, userAgent,
+                        workspaceId, defaultRoleId, AccountCache.INSTANCE.get(workspaceId, email), null),
+                kristaAccountId));
+        return getResponseBuilderWithCORSHeaders(origin).type(NDJSON).entity(results).build();
+    }
+
+    /**
+     * Creates or updates the users of a CSV file ({@code email, name, roles}), streaming progress back as
+     * newline-delimited JSON while the file is read; see {@link UserImport}. Unlike the login endpoints this needs
+     * the caller's own workspace admin session, and rows may only grant the configured importable roles.
+     */
+    @POST
+    @Path("/users/import")
+    @Consumes({CSV, MediaType.TEXT_PLAIN})
+    @Produces(NDJSON)
+    public Response importUsers(@HeaderParam("Origin") String origin, InputStream csv) throws AuthorizationException {
+        if (!authorizationContext.isWorkspaceAdmin()) {
+            throw new IllegalArgumentException("Please provide workspace admin access");
+        }
+        if (csv == null) {
+            throw new IllegalArgumentException("Missing CSV input.");
+        }
+        String workspaceId = runtimeContext.getWorkspaceId();
+        String defaultRoleId = WorkspaceRoleIndex.forWorkspace(workspaceId).ensureRole(roleManager, getDefaultRole());
+        Set<String> importableRoles = getImportableRoles();
+        Map<String, String> attributes = Map.of("ORG", "KristaSoft", "KRISTA_SOURCE", "EXTENSION_DEMO_AUTHENTICATION");
+        StreamingOutput progress = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            new UserImport(accountManager, roleManager, workspaceId, defaultRoleId, importableRoles,
+                    email -> addDomainToWorkspaceIfNotPresent(workspaceId, email), attributes, writer)
+                    .run(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        };
+        return getResponseBuilderWithCORSHeaders(origin).type(NDJSON).entity(progress).build();
+    }
+
     @OPTIONS
     @Path("/logout")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response logoutOptions(@Context javax.ws.rs.core.HttpHeaders headers, String email) {
+    public Response logoutOptions(@Context javax.ws.rs.core.HttpHeaders headers, @HeaderParam("Origin") String origin,
+            String email) {
         try {
-            return getResponseBuilderWithCORSHeaders().build();
+            return getCorsPolicy().preflight(origin);
         } catch (Exception cause) {
             throw new IllegalStateException("Failed to logout." +
                     (cause.getMessage() == null || cause.getMessage().isBlank() ? "" : cause.getMessage()), cause);
@@ -145,15 +282,20 @@ public class ExtensionResource {
     @POST
     @Path("/logout")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response logout(@Context javax.ws.rs.core.HttpHeaders headers, LogoutDTO logoutDTO) {
+    public Response logout(@Context javax.ws.rs.core.HttpHeaders headers, @HeaderParam("Origin") String origin,
+            LogoutDTO logoutDTO) {
         try {
             String clientSessionId = logoutDTO.getClientSessionId();
             if (clientSessionId == null || clientSessionId.isEmpty()) {
                 throw new IllegalArgumentException("Missing client session id.");
             }
-            sessionManager.deleteSession(clientSessionId);
+            try {
+                sessionManager.deleteSession(clientSessionId);
+            } finally {
+                ClientSessionUtil.invalidateSession(clientSessionId);
+            }
             Response.ResponseBuilder responseBuilderWithCORSHeaders =
-                    getResponseBuilderWithCORSHeaders();
+                    getResponseBuilderWithCORSHeaders(origin);
             return responseBuilderWithCORSHeaders.entity("Successfully logged out.").build();
         } catch (Exception cause) {
             throw new IllegalStateException("Failed to logout." +
@@ -161,20 +303,88 @@ public class ExtensionResource {
         }
     }
 
-    private void addDomainToWorkspaceIfNotPresent(String email) throws AuthorizationException {
-        List<String> supportedDomainsForWorkspace = authenticationSettings.getSupportedDomains();
-        String supportedDomain = String.join(",", supportedDomainsForWorkspace);
-        String invokerDomains = email.substring(email.indexOf("@") + 1);
-        CommonUtils.validateIfSupportedDomain(email, supportedDomain, invokerDomains);
-        CommonUtils.addSupportedDomainsToWorkspace(email, supportedDomainsForWorkspace, authenticationSettings);
+    private void addDomainToWorkspaceIfNotPresent(String workspaceId, String email) throws AuthorizationException {
+        addDomainsToWorkspaceIfNotPresent(workspaceId, List.of(email));
+    }
+
+    /**
+     * Validates the domain of every email first and only then registers the missing ones, once per domain and in
+     * the background; see {@link SupportedDomains}.
+     */
+    private void addDomainsToWorkspaceIfNotPresent(String workspaceId, Collection<String> emails)
+            throws AuthorizationException {
+        SupportedDomains supportedDomains = SupportedDomains.forWorkspace(workspaceId);
+        registerDomains(supportedDomains, validateDomains(supportedDomains, emails));
     }
 
-    private AuthenticationResponse createAuthenticationResponse(Account account, String sessionId)
+    /**
+     * @return the distinct, lower-cased domains of the emails, once every one of them has been checked against the
+     * workspace's supported domains.
+     */
+    private Collection<String> validateDomains(SupportedDomains supportedDomains, Collection<String> emails)
             throws AuthorizationException {
-        return new AuthenticationResponse(sessionId, account.getPerson().getPersonName(),
-                account.getPerson().getAvatarUrl(), account.getAccountId(),
-                runtimeContext.getKristaAccount().getAccountId(), account.getPerson().getPersonId(),
-                getListOfRoles(account.getRoles()), account.getInboxId(), roleManager.isWorkspaceAdmin(account),
+        DomainMatcher workspaceDomains = supportedDomains.getSnapshot(authenticationSettings).getMatcher();
+        Map<String, String> emailsByDomain = new LinkedHashMap<>();
+        for (String email : emails) {
+            emailsByDomain.putIfAbsent(email.substring(email.indexOf("@") + 1).toLowerCase(), email);
+        }
+        for (String email : emailsByDomain.values()) {
+            String invokerDomains = email.substring(email.indexOf("@") + 1);
+            CommonUtils.validateIfSupportedDomainIn(email, workspaceDomains, invokerDomains);
+        }
+        return emailsByDomain.keySet();
+    }
+
+    private void registerDomains(SupportedDomains supportedDomains, Collection<String> domains) {
+        for (String domain : domains) {
+            supportedDomains.register(domain, authenticationSettings);
+        }
+    }
+
+    private Collection<String> getBatchEmails(Map<String, List<String>> batchInput) {
+        List<String> emails = batchInput == null ? null : batchInput.get("emails");
+        if (emails == null || emails.isEmpty()) {
+            throw new IllegalArgumentException("Invalid emails input.");
+        }
+        Map<String, String> distinctEmails = new LinkedHashMap<>();
+        List<String> invalidEmails = new ArrayList<>();
+        for (String email : emails) {
+            if (EmailValidator.isValidEmail(email)) {
+                distinctEmails.putIfAbsent(email.toLowerCase(), email);
+            } else {
+                invalidEmails.add(String.valueOf(email));
+            }
+        }
+        if (!invalidEmails.isEmpty()) {
+            throw new IllegalArgumentException("Invalid email input: " + String.join(", ", invalidEmails));
+        }
+        if (distinctEmails.size() > BATCH_LOGIN_MAXIMUM_SIZE) {
+            throw new IllegalArgumentException(
+                    "At most " + BATCH_LOGIN_MAXIMUM_SIZE + " emails can be logged in at once.");
+        }
+        return distinctEmails.values();
+    }
+
+    private AuthenticationResponse startSession(String workspaceId, String email, AccountProfile account,
+            String kristaAccountId) throws AuthorizationException {
+        String sessionId;
+        try {
+            sessionId = sessionManager.createSession(account.getAccountId());
+        } catch (Exception cause) {
+            // The profile may have come from the cache while the account was removed since.
+            AccountCache.INSTANCE.invalidate(workspaceId, email);
+            throw cause;
+        }
+        ClientSessionUtil.rememberSession(sessionId, account.getAccountId());
+        return createAuthenticationResponse(account, sessionId, kristaAccountId);
+    }
+
+    private AuthenticationResponse createAuthenticationResponse(AccountProfile account, String sessionId,
+            String kristaAccountId) {
+        return new AuthenticationResponse(sessionId, account.getPersonName(),
+                account.getAvatarUrl(), account.getAccountId(),
+                kristaAccountId, account.getPersonId(),
+                new ArrayList<>(account.getRoleIds()), account.getInboxId(), account.isWorkspaceAdmin(),
                 false,
                 Map.of("email", account.getPrimaryEmailAddress()),
                 Map.of("creationTime", getCurrentDateTime()));
@@ -188,69 +398,75 @@ public class ExtensionResource {
         return allRoles;
     }
 
-    private Account getAccount(String name, String email, String userAgent)
+    /**
+     * Returns the cached profile of a returning user that already holds the default role; otherwise provisions the
+     * account (creating it or adding missing roles as needed) and caches the resulting profile.
+     * <p>
+     * Concurrent logins for the same email share one provisioning run, so a new user is created only once.
+     */
+    private AccountProfile getAccountProfile(String name, String email, String userAgent, String workspaceId,
+            String defaultRoleId, AccountProfile cached, ModifiableAccount existingAccount)
             throws AuthorizationException {
-        String defaultRole = createRoleIfNotPresent();
-        ModifiableAccount account = accountManager.lookupAccount(email);
-        List<String> roleNames = ensureHasAllRoles(account, defaultRole);
+        if (cached != null && cached.hasRole(defaultRoleId)) {
+            return cached;
+        }
+        try {
+            return AccountCache.INSTANCE.provision(workspaceId, email,
+                    () -> provisionAccount(name, email, userAgent, workspaceId, defaultRoleId, existingAccount));
+        } catch (Exception cause) {
+            // The default role may have been removed since the role index was loaded.
+            WorkspaceRoleIndex.forWorkspace(workspaceId).invalidate(defaultRoleId);
+            throw cause;
+        }
+    }
+
+    private AccountProfile provisionAccount(String name, String email, String userAgent, String workspaceId,
+            String defaultRoleId, ModifiableAccount existingAccount) throws AuthorizationException {
+        AccountProfile cached = AccountCache.INSTANCE.get(workspaceId, email);
+        if (cached != null && cached.hasRole(defaultRoleId)) {
+            return cached;
+        }
+        AccountCache.INSTANCE.invalidate(workspaceId, email);
+        // A missing account is looked up again: it may have been created since the prefetch.
+        ModifiableAccount account = existingAccount != null ? existingAccount : accountManager.lookupAccount(email);
+        List<String> roleIds = ensureHasAllRoles(account, defaultRoleId);
         if (account == null) {
             account = accountManager.createAccount(name, email,
-                    new HashSet<>(roleNames),//Default role
+                    new HashSet<>(roleIds),//Default role
                     Map.of("ORG", "KristaSoft", "KRISTA_SOURCE", "EXTENSION_DEMO_AUTHENTICATION",
                             "KRISTA_LAST_LOGIN",
                             getCurrentDateTime(), "KRISTA_USER_AGENT_INFO", userAgent == null ? "" : userAgent));
+            roleIds = getListOfRoles(account.getRoles());
         }
-        return account;
+        AccountProfile profile = AccountProfile.of(account, roleIds, roleManager.isWorkspaceAdmin(account));
+        AccountCache.INSTANCE.put(workspaceId, email, profile);
+        return profile;
     }
 
-    private List<String> ensureHasAllRoles(ModifiableAccount modifiableAccount, String roles)
+    /**
+     * Returns the role ids the account should hold and, for an existing account, adds only the ones it is
+     * missing. A returning user who already has the default role causes no write at all.
+     */
+    private List<String> ensureHasAllRoles(ModifiableAccount modifiableAccount, String defaultRoleId)
             throws AuthorizationException {
-        List<String> accountRoles = new ArrayList<>();
-        accountRoles.add(roles);
-        List<String> allRoles = new ArrayList<>();
-        Iterable<ModifiableRole> workspaceRoles = roleManager.getRoles();
-        for (String accountRole : accountRoles) {
-            boolean roleExit = false;
-            for (ModifiableRole workspaceRole : workspaceRoles) {
-                if (Objects.equals(accountRole, workspaceRole.getName())) {
-                    allRoles.add(workspaceRole.getRoleId());
-                    roleExit = true;
-                    break;
-                }
-            }
-            if (!roleExit) {
-                ModifiableRole role = roleManager.createRole(accountRole);
-                allRoles.add(role.getRoleId());
-            }
-        }
-        if (modifiableAccount != null) {
-            for (Role role : modifiableAccount.getRoles()) {
-                allRoles.add(role.getRoleId());
-            }
-            modifiableAccount.addRole(allRoles.toArray(String[]::new));
+        List<String> requiredRoles = List.of(defaultRoleId);
+        if (modifiableAccount == null) {
+            return requiredRoles;
         }
-        return allRoles;
-    }
-
-    private String createRoleIfNotPresent() throws AuthorizationException {
-        String defaultRole = getDefaultRole();
-        boolean isRolePresent = isDefaultRolePresentInWorkspace(defaultRole);
-        if (!isRolePresent) {
-            roleManager.createRole(defaultRole);
+        Set<String> allRoles = new LinkedHashSet<>();
+        for (Role role : modifiableAccount.getRoles()) {
+            allRoles.add(role.getRoleId());
         }
-        return defaultRole;
-    }
-
-    private boolean isDefaultRolePresentInWorkspace(String defaultRole) throws AuthorizationException {
-        Iterable<ModifiableRole> roles = roleManager.getRoles();
-        if (roles != null) {
-            for (ModifiableRole role : roles) {
-                if (Objects.equals(defaultRole, role.getName())) {
-                    return true;
-                }
+        List<String> missingRoles = new ArrayList<>();
+        for (String requiredRole : requiredRoles) {
+            if (allRoles.add(requiredRole)) {
+                missingRoles.add(requiredRole);
             }
         }
-        return false;
+        if (!missingRoles.isEmpty()) {
+            modifiableAccount.addRole(missingRoles.toArray(String[]::new));
+        }
+        return new ArrayList<>(allRoles);
     }
 
     private String getDefaultRole() {
@@ -262,30 +478,30 @@ public class ExtensionResource {
         return defaultRole;
     }
 
-    private String getCurrentDateTime() {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss Z");
-        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-        return dateFormat.format(Calendar.getInstance().getTime());
+    private Set<String> getImportableRoles() {
+        Set<String> importableRoles = new HashSet<>();
+        Object importableRolesObject = invoker.getAttributes().get(DemoAuthenticationExtension.IMPORTABLE_ROLES_KEY);
+        if (importableRolesObject instanceof String) {
+            for (String roleName : ((String) importableRolesObject).split(",")) {
+                if (!roleName.isBlank()) {
+                    importableRoles.add(roleName.trim());
+                }
+            }
+        }
+        return importableRoles;
     }
 
-    private boolean isEmailAddressValid(String email) {
-        String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\." +
-                "[a-zA-Z0-9_+&*-]+)*@" +
-                "(?:[a-zA-Z0-9-]+\\.)+[a-z" +
-                "A-Z]{2,7}$";
+    private String getCurrentDateTime() {
+        return Timestamps.system().now();
+    }
 
-        Pattern pat = Pattern.compile(emailRegex);
-        if (email == null) {
-            return false;
-        }
-        return pat.matcher(email).matches();
+    private Response.ResponseBuilder getResponseBuilderWithCORSHeaders(String origin) {
+        return getCorsPolicy().apply(Response.status(200), origin);
     }
 
-    private Response.ResponseBuilder getResponseBuilderWithCORSHeaders() {
-        return Response.status(200)
-                .header("Access-Control-Allow-Origin", "*")
-                .header("Access-Control-Allow-Methods", "POST, GET, OPTIONS")
-                .header("Access-Control-Allow-Headers", "Content-Type");
+    private CorsPolicy getCorsPolicy() {
+        Object allowedOrigins = invoker.getAttributes().get(DemoAuthenticationExtension.ALLOWED_ORIGINS_KEY);
+        return CorsPolicy.of(allowedOrigins instanceof String ? (String) allowedOrigins : null);
     }
 
     private String getUserAgent(HttpHeaders headers) {
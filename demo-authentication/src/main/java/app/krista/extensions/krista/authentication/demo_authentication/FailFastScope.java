@@ -0,0 +1,107 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import app.krista.extension.authorization.AuthorizationException;
+
+/**
+ * Runs independent platform calls of one request concurrently on virtual threads, in the manner of
+ * {@code StructuredTaskScope.ShutdownOnFailure} (still a preview API in Java 21).
+ * <p>
+ * {@link #join()} returns once every forked call has succeeded; the first failure is rethrown to the owner at once.
+ * Calls still running are never interrupted: some of them, such as {@link WorkspaceRoleIndex#ensureRole}, run
+ * {@code SingleFlight} work shared with other requests, which an interruption would abort half-way. They finish in
+ * the background and their results are discarded. Closing the scope only drops calls that have not started.
+ * <p>
+ * Forked calls run on other threads than the request, so they may only use the injected platform services
+ * ({@code AccountManager}, {@code RoleManager}, {@code AuthenticationSettings}), which the extension already shares
+ * between request threads. Anything read from the request context, such as invoker attributes or the runtime
+ * context, is read by the owner before forking. A scope is used by the thread that created it only.
+ */
+final class FailFastScope implements AutoCloseable {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("krista-login-", 0).factory());
+
+    private final List<Future<?>> threads = new ArrayList<>();
+    private final List<CompletableFuture<?>> results = new ArrayList<>();
+    private final CompletableFuture<Void> failed = new CompletableFuture<>();
+
+    <T> CompletableFuture<T> fork(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        results.add(result);
+        threads.add(EXECUTOR.submit(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable cause) {
+                result.completeExceptionally(cause);
+                failed.completeExceptionally(cause);
+            }
+        }));
+        return result;
+    }
+
+    void join() throws AuthorizationException {
+        try {
+            CompletableFuture.anyOf(failed, CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)))
+                    .get();
+        } catch (ExecutionException cause) {
+            cancel();
+            Throwable failure = cause.getCause() == null ? cause : cause.getCause();
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            if (failure instanceof AuthorizationException) {
+                throw (AuthorizationException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IllegalStateException("Login step failed.", failure);
+        } catch (InterruptedException cause) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging in.", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancel();
+    }
+
+    private void cancel() {
+        for (Future<?> thread : threads) {
+            thread.cancel(false);
+        }
+    }
+
+}
@@ -21,18 +21,25 @@ package app.krista.extensions.krista.authentication.demo_authentication;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
+import app.krista.extension.common.ExtensionLogger;
 import app.krista.extension.common.KristaError;
 
 public class KristaExceptionMapper implements ExceptionMapper<Exception> {
 
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(KristaExceptionMapper.class);
+
     @Override
     public Response toResponse(Exception exception) {
         String message = exception.getMessage() == null ? "Authentication failure." : exception.getMessage();
-        exception.printStackTrace();
         int statusCode = 500;
         if (exception instanceof WebApplicationException) {
             statusCode = ((WebApplicationException) exception).getResponse().getStatus();
         }
+        if (statusCode >= 500) {
+            LOGGER.log(ExtensionLogger.Level.ERROR, "request.failed", exception, "status", statusCode);
+        } else {
+            LOGGER.log(ExtensionLogger.Level.WARN, "request.rejected", "status", statusCode, "message", message);
+        }
         return Response.status(statusCode).entity(new KristaError(message, "Demo Auth - 500")).build();
     }
 
@@ -0,0 +1,301 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import app.krista.extension.authorization.AuthorizationException;
+import app.krista.extension.common.EmailAddresses;
+import app.krista.extension.common.ExtensionLogger;
+import app.krista.ksdk.accounts.AccountManager;
+import app.krista.ksdk.accounts.ModifiableAccount;
+import app.krista.ksdk.authorization.Role;
+import app.krista.ksdk.authorization.RoleManager;
+import app.krista.model.field.util.GsonJsonMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+
+/**
+ * Imports users from a CSV stream with the columns {@code email, name, roles}, where {@code roles} holds role
+ * names separated by {@code ;} and an optional first row naming the columns is skipped. A row may only name the
+ * importable roles configured on the extension, and its email domain goes through the same supported-domain
+ * check and registration as a login.
+ * <p>
+ * Rows are read one at a time and handed out in batches of {@code krista.authentication.userImport.batchSize}
+ * (default 100) to virtual threads. At most {@code krista.authentication.userImport.parallelism} (default 4)
+ * batches run at once; reading pauses until one finishes, so memory stays bounded whatever the size of the file.
+ * Progress is reported as newline-delimited JSON: a {@code {"row": n, "email": ..., "error": ...}} line for each
+ * failed row, a {@code {"processed": ..., "succeeded": ..., "failed": ...}} line after each batch and the same
+ * counts with {@code "done": true} at the end.
+ */
+class UserImport {
+
+    static final int BATCH_SIZE = Math.max(1, Integer.getInteger("krista.authentication.userImport.batchSize", 100));
+    static final int PARALLELISM = Math.max(1, Integer.getInteger("krista.authentication.userImport.parallelism", 4));
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("krista-user-import-", 0).factory());
+    private static final GsonJsonMapper GSON_JSON_MAPPER = GsonJsonMapper.create();
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(UserImport.class);
+
+    private final AccountManager accountManager;
+    private final RoleManager roleManager;
+    private final String workspaceId;
+    private final WorkspaceRoleIndex roleIndex;
+    private final String defaultRoleId;
+    private final Set<String> importableRoles;
+    private final Domains domains;
+    private final Map<String, String> attributes;
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Writer output;
+    private volatile IOException outputFailure;
+
+    UserImport(AccountManager accountManager, RoleManager roleManager, String workspaceId, String defaultRoleId,
+            Set<String> importableRoles, Domains domains, Map<String, String> attributes, Writer output) {
+        this.accountManager = accountManager;
+        this.roleManager = roleManager;
+        this.workspaceId = workspaceId;
+        this.roleIndex = WorkspaceRoleIndex.forWorkspace(workspaceId);
+        this.defaultRoleId = defaultRoleId;
+        this.importableRoles = importableRoles;
+        this.domains = domains;
+        this.attributes = attributes;
+        this.output = output;
+    }
+
+    interface Domains {
+
+        void addDomainIfNotPresent(String email) throws AuthorizationException;
+
+    }
+
+    void run(Reader input) throws IOException {
+        long startedAt = System.nanoTime();
+        Semaphore permits = new Semaphore(PARALLELISM);
+        try (CSVReader reader = new CSVReader(input)) {
+            List<String[]> batch = new ArrayList<>(BATCH_SIZE);
+            long firstRow = 1;
+            String[] columns;
+            while (outputFailure == null && (columns = readNext(reader)) != null) {
+                if (reader.getRecordsRead() == 1 && isHeader(columns)) {
+                    firstRow = 2;
+                    continue;
+                }
+                batch.add(columns);
+                if (batch.size() == BATCH_SIZE) {
+                    submit(permits, firstRow, batch);
+                    firstRow += batch.size();
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty() && outputFailure == null) {
+                submit(permits, firstRow, batch);
+            }
+        } catch (IllegalArgumentException cause) {
+            report(Map.of("error", cause.getMessage()));
+        } finally {
+            awaitBatches(permits);
+        }
+        Map<String, Object> summary = progress();
+        summary.put("done", true);
+        report(summary);
+        LOGGER.log(ExtensionLogger.Level.INFO, "userImport", "succeeded", succeeded.get(), "failed", failed.get(),
+                "latencyMillis", (System.nanoTime() - startedAt) / 1_000_000);
+        if (outputFailure != null) {
+            throw outputFailure;
+        }
+    }
+
+    private void submit(Semaphore permits, long firstRow, List<String[]> batch) throws IOException {
+        try {
+            // Backpressure: the reader waits here while the maximum number of batches is in flight.
+            permits.acquire();
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing users.", cause);
+        }
+        EXECUTOR.execute(() -> {
+            try {
+                importBatch(firstRow, batch);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private void awaitBatches(Semaphore permits) throws IOException {
+        try {
+            permits.acquire(PARALLELISM);
+            permits.release(PARALLELISM);
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing users.", cause);
+        }
+    }
+
+    private void importBatch(long firstRow, List<String[]> batch) {
+        for (int i = 0; i < batch.size() && outputFailure == null; i++) {
+            String[] columns = batch.get(i);
+            try {
+                importRow(columns);
+                succeeded.incrementAndGet();
+            } catch (Exception cause) {
+                failed.incrementAndGet();
+                Map<String, Object> failure = new LinkedHashMap<>();
+                failure.put("row", firstRow + i);
+                failure.put("email", cell(columns, 0));
+                failure.put("error",
+                        cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+                report(failure);
+            }
+        }
+        report(progress());
+    }
+
+    private void importRow(String[] columns) throws AuthorizationException {
+        String email = cell(columns, 0);
+        if (!EmailAddresses.isValidEmailAddress(email)) {
+            throw new IllegalArgumentException("Invalid email address.");
+        }
+        domains.addDomainIfNotPresent(email);
+        String name = cell(columns, 1);
+        String personName = name.isEmpty() ? email.substring(0, email.indexOf('@')) : name;
+        Set<String> roleIds = new LinkedHashSet<>();
+        roleIds.add(defaultRoleId);
+        for (String roleName : cell(columns, 2).split(";")) {
+            if (!roleName.isBlank()) {
+                if (!importableRoles.contains(roleName.trim())) {
+                    throw new IllegalArgumentException("Role " + roleName.trim() + " cannot be imported.");
+                }
+                String roleId = roleIndex.getRoleId(roleManager, roleName.trim());
+                if (roleId == null) {
+                    throw new IllegalArgumentException("Role " + roleName.trim() + " does not exist.");
+                }
+                roleIds.add(roleId);
+            }
+        }
+        try {
+            // Shared with concurrent logins and rows for the same email, so the account is created only once.
+            AccountProfile profile = AccountCache.INSTANCE.provision(workspaceId, email,
+                    () -> provision(personName, email, roleIds));
+            if (!profile.getRoleIds().containsAll(roleIds)) {
+                // The shared run was for another caller's roles; the account exists now, add this row's.
+                profile = addRoles(email, roleIds);
+            }
+            if (!profile.getRoleIds().containsAll(roleIds)) {
+                throw new IllegalStateException("Account was not given all of its roles.");
+            }
+        } catch (Exception cause) {
+            // One of the roles may have been removed since the role index was loaded.
+            for (String roleId : roleIds) {
+                roleIndex.invalidate(roleId);
+            }
+            throw cause;
+        }
+    }
+
+    private AccountProfile provision(String name, String email, Set<String> roleIds) throws AuthorizationException {
+        ModifiableAccount account = accountManager.lookupAccount(email);
+        if (account == null) {
+            return remember(email, accountManager.createAccount(name, email, roleIds, attributes));
+        }
+        return addRoles(email, account, roleIds);
+    }
+
+    private AccountProfile addRoles(String email, Set<String> roleIds) throws AuthorizationException {
+        ModifiableAccount account = accountManager.lookupAccount(email);
+        if (account == null) {
+            throw new IllegalStateException("Account was not found.");
+        }
+        return addRoles(email, account, roleIds);
+    }
+
+    private AccountProfile addRoles(String email, ModifiableAccount account, Set<String> roleIds)
+            throws AuthorizationException {
+        Set<String> missingRoles = new LinkedHashSet<>(roleIds);
+        for (Role role : account.getRoles()) {
+            missingRoles.remove(role.getRoleId());
+        }
+        if (!missingRoles.isEmpty()) {
+            account.addRole(missingRoles.toArray(String[]::new));
+        }
+        return remember(email, account);
+    }
+
+    private AccountProfile remember(String email, ModifiableAccount account) throws AuthorizationException {
+        List<String> accountRoleIds = new ArrayList<>();
+        for (Role role : account.getRoles()) {
+            accountRoleIds.add(role.getRoleId());
+        }
+        AccountProfile profile = AccountProfile.of(account, accountRoleIds, roleManager.isWorkspaceAdmin(account));
+        AccountCache.INSTANCE.put(workspaceId, email, profile);
+        return profile;
+    }
+
+    private Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("processed", succeeded.get() + failed.get());
+        progress.put("succeeded", succeeded.get());
+        progress.put("failed", failed.get());
+        return progress;
+    }
+
+    private synchronized void report(Map<String, ?> line) {
+        if (outputFailure != null) {
+            return;
+        }
+        try {
+            output.write(GSON_JSON_MAPPER.toString(line));
+            output.write('\n');
+            output.flush();
+        } catch (IOException cause) {
+            // The client went away: stop reading and let running batches wind down.
+            outputFailure = cause;
+        }
+    }
+
+    private static String[] readNext(CSVReader reader) throws IOException {
+        try {
+            return reader.readNext();
+        } catch (CsvException cause) {
+            throw new IllegalArgumentException("Invalid CSV at line " + cause.getLineNumber() + ".", cause);
+        }
+    }
+
+    private static boolean isHeader(String[] columns) {
+        return "email".equalsIgnoreCase(cell(columns, 0));
+    }
+
+    private static String cell(String[] columns, int index) {
+        return columns.length > index && columns[index] != null ? columns[index].trim() : "";
+    }
+
+}
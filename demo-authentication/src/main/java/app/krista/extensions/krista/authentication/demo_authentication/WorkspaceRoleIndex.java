@@ -0,0 +1,142 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import app.krista.extension.authorization.AuthorizationException;
+import app.krista.extension.common.SingleFlight;
+import app.krista.ksdk.authorization.ModifiableRole;
+import app.krista.ksdk.authorization.RoleManager;
+
+/**
+ * Role name to role id index of a workspace, so logins do not enumerate {@link RoleManager#getRoles()}.
+ * <p>
+ * The index is filled on first use, updated in place when this extension creates a role and rebuilt from the
+ * workspace every {@code krista.authentication.roleIndex.refreshSeconds} (default 300) to pick up roles created
+ * or removed elsewhere. A name missing from the index triggers a reload as well, at most every
+ * {@code krista.authentication.roleIndex.missRefreshSeconds} (default 5), so a role created elsewhere moments ago
+ * is found. Callers whose platform call failed with an id from the index {@link #invalidate} it, so a role removed
+ * in the meantime is reloaded on the next lookup instead of being trusted until the next refresh.
+ */
+class WorkspaceRoleIndex {
+
+    static final Duration REFRESH_INTERVAL =
+            Duration.ofSeconds(Long.getLong("krista.authentication.roleIndex.refreshSeconds", 300));
+    static final Duration MISS_REFRESH_INTERVAL =
+            Duration.ofSeconds(Long.getLong("krista.authentication.roleIndex.missRefreshSeconds", 5));
+
+    private static final Map<String, WorkspaceRoleIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, String> roleCreations = new SingleFlight<>();
+    private final long refreshIntervalNanos;
+    private final long missRefreshIntervalNanos;
+    private volatile Map<String, String> roleIdsByName;
+    private volatile long refreshedAt;
+
+    WorkspaceRoleIndex(Duration refreshInterval) {
+        this(refreshInterval, MISS_REFRESH_INTERVAL);
+    }
+
+    WorkspaceRoleIndex(Duration refreshInterval, Duration missRefreshInterval) {
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.missRefreshIntervalNanos = missRefreshInterval.toNanos();
+    }
+
+    static WorkspaceRoleIndex forWorkspace(String workspaceId) {
+        return INDEXES.computeIfAbsent(workspaceId == null ? "" : workspaceId,
+                key -> new WorkspaceRoleIndex(REFRESH_INTERVAL));
+    }
+
+    String getRoleId(RoleManager roleManager, String roleName) throws AuthorizationException {
+        String roleId = roles(roleManager).get(roleName);
+        if (roleId == null && System.nanoTime() - refreshedAt > missRefreshIntervalNanos) {
+            roleId = refresh(roleManager, missRefreshIntervalNanos).get(roleName);
+        }
+        return roleId;
+    }
+
+    /**
+     * Returns the id of the named role, creating the role when the workspace does not have it yet.
+     */
+    String ensureRole(RoleManager roleManager, String roleName) throws AuthorizationException {
+        String roleId = getRoleId(roleManager, roleName);
+        if (roleId != null) {
+            return roleId;
+        }
+        // Concurrent logins needing the same new role create it once; other role names do not wait.
+        return Coalescing.execute(roleCreations, roleName, () -> {
+            String existingRoleId = roles(roleManager).get(roleName);
+            if (existingRoleId != null) {
+                return existingRoleId;
+            }
+            ModifiableRole role = roleManager.createRole(roleName);
+            put(roleName, role.getRoleId());
+            return role.getRoleId();
+        });
+    }
+
+    /**
+     * Drops the index if it still maps a role to {@code roleId}, so the next lookup reloads the workspace's roles.
+     */
+    synchronized void invalidate(String roleId) {
+        Map<String, String> roles = roleIdsByName;
+        if (roleId != null && roles != null && roles.containsValue(roleId)) {
+            roleIdsByName = null;
+        }
+    }
+
+    synchronized void put(String roleName, String roleId) {
+        Map<String, String> updated = new HashMap<>(roleIdsByName == null ? Map.of() : roleIdsByName);
+        updated.put(roleName, roleId);
+        roleIdsByName = updated;
+    }
+
+    private Map<String, String> roles(RoleManager roleManager) throws AuthorizationException {
+        Map<String, String> roles = roleIdsByName;
+        if (roles == null || System.nanoTime() - refreshedAt > refreshIntervalNanos) {
+            roles = refresh(roleManager, refreshIntervalNanos);
+        }
+        return roles;
+    }
+
+    /**
+     * Reloads the roles unless another caller did so within {@code maximumAgeNanos}.
+     */
+    private synchronized Map<String, String> refresh(RoleManager roleManager, long maximumAgeNanos)
+            throws AuthorizationException {
+        Map<String, String> roles = roleIdsByName;
+        if (roles != null && System.nanoTime() - refreshedAt <= maximumAgeNanos) {
+            return roles;
+        }
+        Map<String, String> loaded = new HashMap<>();
+        Iterable<ModifiableRole> workspaceRoles = roleManager.getRoles();
+        if (workspaceRoles != null) {
+            for (ModifiableRole role : workspaceRoles) {
+                loaded.putIfAbsent(role.getName(), role.getRoleId());
+            }
+        }
+        roleIdsByName = loaded;
+        refreshedAt = System.nanoTime();
+        return loaded;
+    }
+
+}
@@ -18,6 +18,9 @@
 
 package app.krista.extensions.krista.authentication.demo_authentication.catalog;
 
+import javax.inject.Inject;
+import javax.inject.Named;
+import app.krista.extension.executor.Invoker;
 import app.krista.extension.impl.anno.CatalogRequest;
 import app.krista.extension.impl.anno.Domain;
 import app.krista.extension.impl.anno.Field;
@@ -29,6 +32,13 @@ import app.krista.extension.impl.anno.Field;
         ecosystemVersion = "c3544170-0310-4bdc-9130-43dab2ad8a8a")
 public class IntegrationArea {
 
+    private final Invoker invoker;
+
+    @Inject
+    public IntegrationArea(@Named("self") Invoker invoker) {
+        this.invoker = invoker;
+    }
+
     @CatalogRequest(description = "Get Script Element",
             id = "localDomainRequest_723f4e2c-4f16-4e21-98d4-35184ce1cefb",
             name = "Get Script Element",
@@ -36,20 +46,7 @@ public class IntegrationArea {
             type = CatalogRequest.Type.QUERY_SYSTEM)
     @Field(name = "Script Element", type = "Text", attributes = {}, options = {})
     public String getScriptElement() {
-        return "<script>\n" +
-                "    function prepareUserInterfaceClient(predicate, args) {\n" +
-                "      predicate(args);\n" +
-                "    }\n" +
-                "    function updateLoginText(ref, data) {\n" +
-                "      ref.loggedUserText.text(data.email);\n" +
-                "    }\n" +
-                "    const template = document.getElementById(\"template-form\");\n" +
-                "    const templateClone = template.content.cloneNode(true);\n" +
-                "    document.getElementById(\"__hosted__container__\").appendChild(templateClone);\n" +
-                "    $(document).ready(function () {\n" +
-                "      $(\"#form\").prepend(`<input name=\"email\" type=\"text\" id=\"email\" placeholder=\"Enter email\" /><br />`);\n" +
-                "    });\n" +
-                "  </script>";
+        return LoginScript.forAttributes(invoker.getAttributes()).getScript();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import app.krista.extension.common.ExpiringCache;
+import app.krista.extension.common.ExtensionLogger;
+import app.krista.extension.common.Template;
+import app.krista.extensions.krista.authentication.demo_authentication.DemoAuthenticationExtension;
+
+/**
+ * The script element returned by {@link IntegrationArea#getScriptElement()}, rendered from
+ * {@code script-element.html} once per combination of the login form attributes and then served from a cache.
+ * <p>
+ * {@code login_form_fields} lists the inputs as {@code name:placeholder} pairs (default {@code email:Enter email};
+ * an {@code email} input is always present). {@code login_role_hint} is optional text shown under the inputs, in
+ * which {@code {{defaultRole}}} stands for the configured default role. With neither attribute set the output is
+ * the script this request has always returned. A field with an invalid name, or a hint with any other placeholder,
+ * is left out with a warning, logged once per combination.
+ */
+final class LoginScript {
+
+    static final String EMAIL_FIELD = "email";
+    static final String EMAIL_PLACEHOLDER = "Enter email";
+
+    private static final ExtensionLogger LOGGER = ExtensionLogger.getLogger(LoginScript.class);
+    private static final Template TEMPLATE = Template.compile(load("script-element.html"));
+    private static final ExpiringCache<List<String>, LoginScript> RENDERED =
+            new ExpiringCache<>(64, Duration.ofDays(1));
+
+    private final String script;
+
+    private LoginScript(String script) {
+        this.script = script;
+    }
+
+    static LoginScript forAttributes(Map<String, Object> attributes) {
+        List<String> configuration = new ArrayList<>(3);
+        configuration.add(getText(attributes, DemoAuthenticationExtension.LOGIN_FORM_FIELDS_KEY));
+        configuration.add(getText(attributes, DemoAuthenticationExtension.LOGIN_ROLE_HINT_KEY));
+        configuration.add(getText(attributes, DemoAuthenticationExtension.DEFAULT_ROLE_KEY));
+        LoginScript loginScript = RENDERED.get(configuration);
+        if (loginScript == null) {
+            loginScript = render(configuration.get(0), configuration.get(1), configuration.get(2));
+            RENDERED.put(configuration, loginScript);
+            LOGGER.log(ExtensionLogger.Level.DEBUG, "scriptElement.rendered", "length",
+                    loginScript.script.length());
+        }
+        return loginScript;
+    }
+
+    String getScript() {
+        return script;
+    }
+
+    static LoginScript render(String formFields, String roleHint, String defaultRole) {
+        StringBuilder markup = new StringBuilder(128);
+        List<String> invalidFields = new ArrayList<>();
+        parseFields(formFields, invalidFields).forEach((name, placeholder) -> markup.append("<input name=\"")
+                .append(name).append("\" type=\"text\" id=\"").append(name)
+                .append("\" placeholder=\"").append(Template.escapeHtml(placeholder)).append("\" /><br />"));
+        if (!invalidFields.isEmpty()) {
+            LOGGER.log(ExtensionLogger.Level.WARN, "scriptElement.invalidFields", "fields", invalidFields);
+        }
+        String hint = renderHint(roleHint, defaultRole);
+        if (!hint.isEmpty()) {
+            markup.append("<small class=\"krista-role-hint\">").append(Template.escapeHtml(hint))
+                    .append("</small><br />");
+        }
+        return new LoginScript(TEMPLATE.render(Map.of("formFields", markup.toString())));
+    }
+
+    private static String renderHint(String roleHint, String defaultRole) {
+        if (roleHint.isEmpty()) {
+            return "";
+        }
+        String role = defaultRole.isEmpty() ? DemoAuthenticationExtension.DEFAULT_ROLE_NAME : defaultRole;
+        try {
+            return Template.compile(roleHint).render(Map.of("defaultRole", role));
+        } catch (IllegalArgumentException cause) {
+            LOGGER.log(ExtensionLogger.Level.WARN, "scriptElement.invalidRoleHint", "error", cause.getMessage());
+            return "";
+        }
+    }
+
+    private static Map<String, String> parseFields(String formFields, List<String> invalidFields) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(EMAIL_FIELD, EMAIL_PLACEHOLDER);
+        boolean emailListed = false;
+        for (String entry : formFields.split(",")) {
+            String field = entry.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            int separator = field.indexOf(':');
+            String name = (separator < 0 ? field : field.substring(0, separator)).trim();
+            String placeholder = separator < 0 ? name : field.substring(separator + 1).trim();
+            if (!isValidName(name)) {
+                invalidFields.add(field);
+                continue;
+            }
+            if (name.equals(EMAIL_FIELD) && !emailListed) {
+                // The configured email placeholder replaces the default one but keeps its position.
+                fields.put(EMAIL_FIELD, placeholder);
+                emailListed = true;
+            } else {
+                fields.putIfAbsent(name, placeholder);
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getText(Map<String, Object> attributes, String key) {
+        Object value = attributes == null ? null : attributes.get(key);
+        return value instanceof String ? ((String) value).trim() : "";
+    }
+
+    private static String load(String name) {
+        try (InputStream input = LoginScript.class.getClassLoader().getResourceAsStream(name)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing resource " + name + ".");
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Could not read " + name + ".", cause);
+        }
+    }
+
+}
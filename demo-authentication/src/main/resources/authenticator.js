@@ -1,6 +1,15 @@
 let Auth = (() => {
+  const STORAGE_PREFIX = "krista.demoAuthentication.context:";
+  const CHANNEL_NAME = "krista.demoAuthentication";
+  const DEFAULT_MAX_AGE = 12 * 60 * 60 * 1000;
+
   let baseUrl = "";
   let context = null;
+  let contextHeaders = {};
+  let maxAge = DEFAULT_MAX_AGE;
+  let pendingLogin = null;
+  let channel = null;
+  let listening = false;
 
   const constructUrl = (path) => {
     let url = baseUrl;
@@ -12,56 +21,178 @@ let Auth = (() => {
     return url;
   };
 
-  const setContext = ({ data, url }) => {
-    context = data;
+  // One stored session per extension URL, shared by every tab of the origin.
+  const storageKey = () => STORAGE_PREFIX + baseUrl;
+
+  const readStorage = () => {
+    try {
+      const stored = JSON.parse(window.localStorage.getItem(storageKey()));
+      if (stored && stored.context && Date.now() - stored.savedAt < maxAge) {
+        return stored.context;
+      }
+    } catch (error) {
+      // Storage blocked or corrupt; fall back to this tab only.
+    }
+    return null;
+  };
+
+  const writeStorage = (data) => {
+    try {
+      if (data) {
+        window.localStorage.setItem(storageKey(), JSON.stringify({ context: data, savedAt: Date.now() }));
+      } else {
+        window.localStorage.removeItem(storageKey());
+      }
+    } catch (error) {
+      // Storage blocked or full; the session still lives in this tab.
+    }
+  };
+
+  // The header value only changes with the session, so it is built once per session.
+  const applyContext = (data) => {
+    context = data && data.clientSessionId ? data : null;
+    contextHeaders = context
+      ? {
+          "X-Krista-Context": encodeURIComponent(
+            JSON.stringify({
+              clientSessionId: context.clientSessionId,
+            })
+          ),
+        }
+      : {};
+  };
+
+  const publishContext = (data) => {
+    applyContext(data);
+    writeStorage(context);
+    if (channel) {
+      channel.postMessage({ url: baseUrl, context: context });
+    }
+  };
+
+  const onSharedContext = (data) => {
+    if (!data || !context || data.clientSessionId !== context.clientSessionId) {
+      applyContext(data);
+    }
+  };
+
+  const listen = () => {
+    listening = true;
+    if (typeof BroadcastChannel !== "undefined") {
+      channel = new BroadcastChannel(CHANNEL_NAME);
+      channel.onmessage = (event) => {
+        if (event.data && event.data.url === baseUrl) {
+          onSharedContext(event.data.context);
+        }
+      };
+    }
+    // Covers browsers without BroadcastChannel and tabs that missed a message.
+    window.addEventListener("storage", (event) => {
+      if (event.key === storageKey()) {
+        onSharedContext(event.newValue ? readStorage() : null);
+      }
+    });
+  };
+
+  const setContext = ({ data, url, maxAgeMillis }) => {
     baseUrl = url;
+    if (maxAgeMillis > 0) {
+      maxAge = maxAgeMillis;
+    }
+    if (data && data.clientSessionId) {
+      publishContext(data);
+    } else {
+      applyContext(readStorage());
+    }
+    if (!listening) {
+      listen();
+    }
   };
-  const doLogin = (payload) => {
-    return new Promise((resolve, reject) => {
-      fetch(constructUrl("../authn/login"), {
-        method: "POST",
-        headers: {
-          "Content-Type": "application/json",
-        },
-        body: JSON.stringify(payload),
-      })
-        .then((response) => response.json())
-        .then((data) => {
+
+  // Emails are compared the way the extension looks accounts up: trimmed and case-insensitively.
+  const normalizeEmail = (email) => (typeof email === "string" ? email.trim().toLowerCase() : "");
+
+  const sessionEmail = () =>
+    normalizeEmail(context && context.identificationToken ? context.identificationToken.email : undefined);
+
+  // Picks up a session another tab stored meanwhile; reused only when it belongs to the same user.
+  const reusableSession = (payload) => {
+    const shared = readStorage();
+    if (shared) {
+      onSharedContext(shared);
+    }
+    const email = normalizeEmail(payload.email);
+    return context && context.accountId && email !== "" && email === sessionEmail() ? context : null;
+  };
+
+  const postLogin = (payload) =>
+    fetch(constructUrl("../authn/login"), {
+      method: "POST",
+      headers: {
+        "Content-Type": "application/json",
+      },
+      body: JSON.stringify(payload),
+    })
+      .then((response) => response.json())
+      .then(
+        (data) => {
           if (data && data.accountId) {
-            context = data;
-            resolve(data);
-          } else {
-            reject(data);
+            publishContext(data);
+            return data;
           }
-        })
-        .catch((error) => {
-          reject(`Chatbot login failed.`);
-        });
+          throw data;
+        },
+        (error) => {
+          throw `Chatbot login failed.`;
+        }
+      );
+
+  const doLogin = (payload) => {
+    const session = reusableSession(payload);
+    if (session) {
+      return Promise.resolve(session);
+    }
+    if (pendingLogin && pendingLogin.email === normalizeEmail(payload.email)) {
+      return pendingLogin.promise;
+    }
+    const login = () => reusableSession(payload) || postLogin(payload);
+    // Tabs logging in at the same moment take turns, so only the first one creates a session.
+    const locked = navigator.locks ? navigator.locks.request(CHANNEL_NAME + ":" + baseUrl, login) : login();
+    const promise = Promise.resolve(locked).finally(() => {
+      if (pendingLogin && pendingLogin.promise === promise) {
+        pendingLogin = null;
+      }
     });
+    pendingLogin = { email: normalizeEmail(payload.email), promise: promise };
+    return promise;
   };
   const doDecorateRequest = () => {
-    let headers = {};
-    if (context && context.clientSessionId) {
-      headers = {
-        "X-Krista-Context": encodeURIComponent(
-          JSON.stringify({
-            clientSessionId: context.clientSessionId,
-          })
-        ),
-      };
+    return { ...contextHeaders };
+  };
+  // Drops a stored session the server rejected (401 or 403), in every tab, so the next login posts again.
+  // With a clientSessionId, only that session is dropped, not one another tab has stored since.
+  const doInvalidate = (clientSessionId) => {
+    const shared = readStorage();
+    if (shared) {
+      onSharedContext(shared);
+    }
+    if (context && (!clientSessionId || context.clientSessionId === clientSessionId)) {
+      publishContext(null);
     }
-    return headers;
   };
   const doLogout = () => {
+    const clientSessionId = context ? context.clientSessionId : undefined;
+    const headers = doDecorateRequest();
+    publishContext(null);
     return new Promise((resolve, reject) => {
       fetch(constructUrl("../authn/logout"), {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
-          ...doDecorateRequest(),
+          ...headers,
         },
         body: JSON.stringify({
-          clientSessionId: context.clientSessionId,
+          clientSessionId: clientSessionId,
         }),
       })
         .then((response) => response.json())
@@ -94,6 +225,7 @@ let Auth = (() => {
     init: setContext,
     login: doLogin,
     logout: doLogout,
+    invalidate: doInvalidate,
     decorateRequest: doDecorateRequest,
     getFromFields: getForm,
     getPayload: formValues,
@@ -0,0 +1,148 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccountCacheTest {
+
+    private final AccountCache cache = new AccountCache(10, Duration.ofMinutes(5));
+
+    @Test
+    public void emailIsNormalized() {
+        // Given
+        AccountProfile profile = profile("account-1");
+
+        // When
+        cache.put("workspace", "Jane.Doe@Example.COM", profile);
+
+        // Then
+        Assert.assertSame(profile, cache.get("workspace", "jane.doe@example.com"));
+        Assert.assertSame(profile, cache.get("workspace", "  JANE.DOE@example.com "));
+        Assert.assertEquals(1, cache.getProfiles().size());
+    }
+
+    @Test
+    public void workspacesAreSeparate() {
+        // Given
+        cache.put("workspace-1", "jane@example.com", profile("account-1"));
+
+        // Then
+        Assert.assertNull(cache.get("workspace-2", "jane@example.com"));
+        Assert.assertNull(cache.get(null, "jane@example.com"));
+    }
+
+    @Test
+    public void entriesExpire() throws InterruptedException {
+        // Given
+        AccountCache shortLived = new AccountCache(10, Duration.ofMillis(20));
+        shortLived.put("workspace", "jane@example.com", profile("account-1"));
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        Assert.assertNull(shortLived.get("workspace", "jane@example.com"));
+    }
+
+    @Test
+    public void invalidateUsesNormalizedKey() {
+        // Given
+        cache.put("workspace", "jane@example.com", profile("account-1"));
+
+        // When
+        cache.invalidate("workspace", "JANE@EXAMPLE.COM");
+
+        // Then
+        Assert.assertNull(cache.get("workspace", "jane@example.com"));
+    }
+
+    @Test
+    public void provisionRunsCall() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        AccountProfile provisioned = cache.provision("workspace", "jane@example.com", () -> {
+            calls.incrementAndGet();
+            return profile("account-1");
+        });
+
+        // Then
+        Assert.assertEquals("account-1", provisioned.getAccountId());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void provisioningIsSharedForTheSameEmail() throws Exception {
+        // Given a provisioning in flight
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<AccountProfile> first = executor.submit(() -> cache.provision("workspace", "jane@example.com",
+                    () -> {
+                        calls.incrementAndGet();
+                        started.countDown();
+                        release.await();
+                        return profile("account-1");
+                    }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            Future<AccountProfile> second = executor.submit(() -> cache.provision("workspace", "JANE@example.com",
+                    () -> {
+                        calls.incrementAndGet();
+                        return profile("account-2");
+                    }));
+            while (cache.getProvisionings().getCoalescedCount() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            Assert.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidEmailIsRejected() {
+        // Then
+        Assert.assertThrows(IllegalArgumentException.class, () -> cache.get("workspace", "not-an-email"));
+    }
+
+    private static AccountProfile profile(String accountId) {
+        return new AccountProfile(accountId, "person", "Jane", null, "inbox", "jane@example.com",
+                List.of("role-1"), false);
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.extension.common.AuthenticationResponse;
+import app.krista.extension.common.AuthenticationResponseEncoder;
+import com.google.gson.Gson;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchLoginTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final ExecutorService countingExecutor = new AbstractExecutorService() {
+
+        @Override
+        public void execute(Runnable command) {
+            submitted.incrementAndGet();
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+
+    };
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void writesOneLinePerEmail() throws IOException {
+        // Given
+        BatchLogin batchLogin = new BatchLogin(countingExecutor, 2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        batchLogin.write(output, List.of("a@example.com", "b@example.com", "c@example.com"), email -> {
+            if (email.startsWith("b")) {
+                throw new IllegalStateException("Account locked.");
+            }
+            return response(email);
+        });
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(3, lines.length);
+        Set<String> emails = new HashSet<>();
+        for (String line : lines) {
+            Map<?, ?> result = GSON.fromJson(line, Map.class);
+            emails.add((String) result.get("email"));
+            if ("b@example.com".equals(result.get("email"))) {
+                Assert.assertEquals("Account locked.", result.get("error"));
+                Assert.assertFalse(result.containsKey("authentication"));
+            } else {
+                Map<?, ?> authentication = (Map<?, ?>) result.get("authentication");
+                Assert.assertEquals("session-" + result.get("email"), authentication.get("clientSessionId"));
+                Assert.assertFalse(result.containsKey("error"));
+            }
+        }
+        Assert.assertEquals(Set.of("a@example.com", "b@example.com", "c@example.com"), emails);
+    }
+
+    @Test
+    public void authenticationIsWrittenWithTheEncoder() throws IOException {
+        // Given
+        BatchLogin batchLogin = new BatchLogin(countingExecutor, 2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AuthenticationResponse response = response("<a&b>@example.com");
+
+        // When
+        batchLogin.write(output, List.of("<a&b>@example.com"), email -> response);
+
+        // Then
+        Assert.assertEquals("{\"email\":\"\\u003ca\\u0026b\\u003e@example.com\",\"authentication\":"
+                        + new String(AuthenticationResponseEncoder.encode(response), StandardCharsets.UTF_8) + "}\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void loginsAreHandedOutOnlyWhenAPermitIsFree() throws Exception {
+        // Given
+        BatchLogin batchLogin = new BatchLogin(countingExecutor, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maximumRunning = new AtomicInteger();
+        List<String> emails = List.of("a@example.com", "b@example.com", "c@example.com", "d@example.com",
+                "e@example.com");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        Future<?> batch = executor.submit(() -> {
+            batchLogin.write(output, emails, email -> {
+                maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                    return response(email);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            return null;
+        });
+        while (running.get() < 2) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+
+        // Then no login waits on a thread for a permit
+        Assert.assertEquals(2, submitted.get());
+        release.countDown();
+        batch.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(5, submitted.get());
+        Assert.assertTrue(maximumRunning.get() <= 2);
+        Assert.assertEquals(5, output.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    public void startedLoginsAreNotInterruptedWhenTheClientGoesAway() throws Exception {
+        // Given
+        BatchLogin batchLogin = new BatchLogin(countingExecutor, 2);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean secondInterrupted = new AtomicBoolean();
+        OutputStream closed = new OutputStream() {
+
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+        };
+
+        // When
+        Future<?> batch = executor.submit(() -> {
+            batchLogin.write(closed, List.of("a@example.com", "b@example.com", "c@example.com"), email -> {
+                running.incrementAndGet();
+                if (email.startsWith("a")) {
+                    releaseFirst.await();
+                    return response(email);
+                }
+                try {
+                    releaseSecond.await();
+                } catch (InterruptedException cause) {
+                    secondInterrupted.set(true);
+                } finally {
+                    secondDone.countDown();
+                }
+                return response(email);
+            });
+            return null;
+        });
+        while (running.get() < 2) {
+            Thread.sleep(1);
+        }
+        releaseFirst.countDown();
+        try {
+            batch.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the write to fail.");
+        } catch (ExecutionException expected) {
+            Assert.assertTrue(expected.getCause() instanceof IOException);
+        }
+        releaseSecond.countDown();
+
+        // Then
+        Assert.assertTrue(secondDone.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(secondInterrupted.get());
+        Assert.assertEquals(2, submitted.get());
+    }
+
+    private static AuthenticationResponse response(String email) {
+        Map<String, String> identificationToken = new HashMap<>();
+        identificationToken.put("email", email);
+        return new AuthenticationResponse("session-" + email, "name", null, "account", "krista", "person",
+                List.of("role"), "inbox", false, false, identificationToken, Map.of());
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DocsBundleTest {
+
+    private static final Pattern REFERENCE = Pattern.compile("(?:src|href)=\"([^\"]+\\.(?:js|css))\"");
+    private static final Pattern FINGERPRINTED = Pattern.compile(".*/([^/]+\\.[0-9a-f]{12}\\.[a-z]+)");
+
+    @Test
+    public void everyAssetReferenceInTheBuiltPageResolves() throws IOException {
+        // Given
+        String index = resource("docs/index.html");
+
+        // When
+        Matcher references = REFERENCE.matcher(index);
+        int resolved = 0;
+        while (references.find()) {
+            String reference = references.group(1);
+            Matcher fingerprinted = FINGERPRINTED.matcher(reference);
+            if (fingerprinted.matches()) {
+                Assert.assertNotNull(reference, DocsBundle.getAsset(fingerprinted.group(1)));
+            } else {
+                // Without -PdocsBundleUrl the page keeps loading the originals from the static resource.
+                Assert.assertTrue(reference, reference.startsWith("docs/assets/"));
+                resource(reference);
+            }
+            resolved++;
+        }
+
+        // Then
+        Assert.assertTrue(resolved > 0);
+    }
+
+    @Test
+    public void unknownAssetIsNotServed() {
+        // Then
+        Assert.assertNull(DocsBundle.getAsset("docsify.js"));
+        Assert.assertNull(DocsBundle.getAsset("../manifest.txt"));
+        Assert.assertNull(DocsBundle.getAsset(null));
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream resource = DocsBundleTest.class.getClassLoader().getResourceAsStream(name)) {
+            Assert.assertNotNull(name, resource);
+            return new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
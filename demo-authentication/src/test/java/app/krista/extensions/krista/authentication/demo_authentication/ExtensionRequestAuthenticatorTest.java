@@ -0,0 +1,74 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExtensionRequestAuthenticatorTest {
+
+    @Test
+    public void bodyWithinCapIsBuffered() {
+        // Then
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("Content-Length", "512")));
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("content-length", "512")));
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("CONTENT-LENGTH", " 512 ")));
+    }
+
+    @Test
+    public void bodyOverCapIsStreamed() {
+        // Given
+        String tooLarge = String.valueOf(ExtensionRequestAuthenticator.MAX_BUFFERED_BODY_BYTES + 1);
+
+        // Then
+        Assert.assertFalse(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("Content-Length", tooLarge)));
+        Assert.assertFalse(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("Content-Length", "0")));
+    }
+
+    @Test
+    public void bodyOfUnknownLengthIsBuffered() {
+        // Given
+        Map<String, String> chunked = new HashMap<>();
+        chunked.put("Transfer-Encoding", "chunked");
+
+        // Then
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(chunked));
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(Map.of("Content-Length", "unknown")));
+        Assert.assertTrue(ExtensionRequestAuthenticator.shouldBufferBody(null));
+    }
+
+    @Test
+    public void onlyLoginAndDocsPathsAreLoginPaths() {
+        // Then
+        Assert.assertTrue(ExtensionRequestAuthenticator.isLoginPath("/login"));
+        Assert.assertTrue(ExtensionRequestAuthenticator.isLoginPath("/docs"));
+        Assert.assertTrue(ExtensionRequestAuthenticator.isLoginPath("/docs/"));
+        Assert.assertTrue(ExtensionRequestAuthenticator.isLoginPath("/docs/bundle/docsify.0123456789ab.js"));
+        Assert.assertTrue(ExtensionRequestAuthenticator.isLoginPath("/login/batch"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath("/users/import"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath("/docs/other"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath("/docs/../users"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath("/docs/bundle/../../users"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath("/account"));
+        Assert.assertFalse(ExtensionRequestAuthenticator.isLoginPath(null));
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.extension.executor.Invoker;
+import app.krista.ksdk.accounts.Account;
+import app.krista.ksdk.accounts.AccountManager;
+import app.krista.ksdk.authentication.AuthenticationSettings;
+import app.krista.ksdk.authentication.SessionManager;
+import app.krista.ksdk.authorization.ModifiableRole;
+import app.krista.ksdk.authorization.RoleManager;
+import app.krista.ksdk.context.AuthorizationContext;
+import app.krista.ksdk.context.RuntimeContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExtensionResourceTest {
+
+    private static final String EMAIL = "jane@example.com";
+
+    private final String workspaceId = UUID.randomUUID().toString();
+    private final List<String> roleNames = new ArrayList<>(List.of(DemoAuthenticationExtension.DEFAULT_ROLE_NAME));
+    private final AtomicInteger createdRoles = new AtomicInteger();
+    private final AtomicInteger accountLookups = new AtomicInteger();
+    private volatile RuntimeException supportedDomainsFailure;
+    private final RoleManager roleManager = proxy(RoleManager.class, (method, args) -> {
+        switch (method) {
+            case "getRoles":
+                List<ModifiableRole> roles = new ArrayList<>();
+                for (String roleName : roleNames) {
+                    roles.add(proxy(ModifiableRole.class, Map.of("getName", roleName, "getRoleId", roleId(roleName))));
+                }
+                return roles;
+            case "createRole":
+                createdRoles.incrementAndGet();
+                roleNames.add((String) args[0]);
+                return proxy(ModifiableRole.class, Map.of("getName", args[0], "getRoleId", roleId((String) args[0])));
+            default:
+                return false;
+        }
+    });
+    private final AccountManager accountManager = proxy(AccountManager.class, (method, args) -> {
+        if ("lookupAccount".equals(method)) {
+            accountLookups.incrementAndGet();
+        }
+        return null;
+    });
+    private final SessionManager sessionManager = proxy(SessionManager.class, (method, args) -> {
+        throw new IllegalStateException("Account was removed.");
+    });
+    private final ExtensionResource resource = new ExtensionResource(sessionManager, accountManager,
+            proxy(RuntimeContext.class, Map.of("getWorkspaceId", workspaceId,
+                    "getKristaAccount", proxy(Account.class, Map.of("getAccountId", "krista-account")))),
+            roleManager,
+            proxy(AuthenticationSettings.class, (method, args) -> {
+                if (supportedDomainsFailure != null) {
+                    throw supportedDomainsFailure;
+                }
+                return List.of("example.com");
+            }),
+            proxy(AuthorizationContext.class, Map.of("isWorkspaceAdmin", true)),
+            proxy(Invoker.class, Map.of("getAttributes", Map.of())));
+
+    @Test
+    public void failedSessionDropsTheCachedProfile() {
+        // Given
+        AccountCache.INSTANCE.put(workspaceId, EMAIL, new AccountProfile("account-1", "person", "Jane", null,
+                "inbox", EMAIL, List.of(roleId(DemoAuthenticationExtension.DEFAULT_ROLE_NAME)), false));
+
+        // When
+        try {
+            resource.login(null, null, Map.of("email", EMAIL));
+            Assert.fail("Expected the session to fail.");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("Account was removed.", expected.getMessage());
+        }
+
+        // Then the next login provisions the account again instead of reusing the profile
+        Assert.assertNull(AccountCache.INSTANCE.get(workspaceId, EMAIL));
+        Assert.assertEquals(0, accountLookups.get());
+    }
+
+    @Test
+    public void loginThatFailsItsDomainCheckCreatesNoRole() {
+        // Given the default role does not exist yet and the workspace domains cannot be read
+        roleNames.clear();
+        supportedDomainsFailure = new IllegalStateException("Settings unavailable.");
+
+        // When
+        try {
+            resource.login(null, null, Map.of("email", EMAIL));
+            Assert.fail("Expected the domain check to fail.");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("Settings unavailable.", expected.getMessage());
+        }
+
+        // Then
+        Assert.assertEquals(0, createdRoles.get());
+        Assert.assertEquals(0, accountLookups.get());
+    }
+
+    @Test
+    public void batchLoginThatFailsItsDomainCheckCreatesNoRole() {
+        // Given
+        roleNames.clear();
+        supportedDomainsFailure = new IllegalStateException("Settings unavailable.");
+
+        // When
+        try {
+            resource.loginBatch(null, null, Map.of("emails", List.of(EMAIL, "john@example.com")));
+            Assert.fail("Expected the domain check to fail.");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("Settings unavailable.", expected.getMessage());
+        }
+
+        // Then
+        Assert.assertEquals(0, createdRoles.get());
+    }
+
+    private static String roleId(String roleName) {
+        return "role-" + roleName;
+    }
+
+    private interface Answer {
+
+        Object answer(String method, Object[] args);
+
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return proxy(type, (method, args) -> values.get(method));
+    }
+
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return answer.answer(method.getName(), args);
+                    }
+                }));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FailFastScopeTest {
+
+    @Test
+    public void joinReturnsAllResults() {
+        // Given
+        CompletableFuture<String> first;
+        CompletableFuture<Integer> second;
+
+        // When
+        try (FailFastScope scope = new FailFastScope()) {
+            first = scope.fork(() -> "role-1");
+            second = scope.fork(() -> 42);
+            scope.join();
+        }
+
+        // Then
+        Assert.assertEquals("role-1", first.resultNow());
+        Assert.assertEquals(42, (int) second.resultNow());
+    }
+
+    @Test
+    public void firstFailureIsRethrownWithoutWaitingForOtherCalls() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        long startedAt = System.nanoTime();
+
+        // When
+        IllegalArgumentException failure;
+        try (FailFastScope scope = new FailFastScope()) {
+            scope.fork(() -> {
+                release.await();
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalArgumentException("Domain not supported.");
+            });
+            failure = Assert.assertThrows(IllegalArgumentException.class, scope::join);
+        } finally {
+            release.countDown();
+        }
+
+        // Then
+        Assert.assertEquals("Domain not supported.", failure.getMessage());
+        Assert.assertTrue(System.nanoTime() - startedAt < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void checkedFailureIsWrapped() {
+        // When
+        IllegalStateException failure;
+        try (FailFastScope scope = new FailFastScope()) {
+            scope.fork(() -> {
+                throw new Exception("lookup failed");
+            });
+            failure = Assert.assertThrows(IllegalStateException.class, scope::join);
+        }
+
+        // Then
+        Assert.assertEquals("lookup failed", failure.getCause().getMessage());
+    }
+
+    @Test
+    public void runningCallsAreNotInterrupted() throws InterruptedException {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        // When the scope fails and is closed while a shared call is still running
+        try (FailFastScope scope = new FailFastScope()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException cause) {
+                    interrupted.set(true);
+                }
+                finished.countDown();
+                return null;
+            });
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            scope.fork(() -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.assertThrows(IllegalStateException.class, scope::join);
+        }
+        release.countDown();
+
+        // Then it runs to completion
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(interrupted.get());
+    }
+
+}
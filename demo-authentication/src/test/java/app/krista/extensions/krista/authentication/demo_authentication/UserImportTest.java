@@ -0,0 +1,250 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.ksdk.accounts.AccountManager;
+import app.krista.ksdk.accounts.ModifiableAccount;
+import app.krista.ksdk.accounts.Person;
+import app.krista.ksdk.authorization.ModifiableRole;
+import app.krista.ksdk.authorization.Role;
+import app.krista.ksdk.authorization.RoleManager;
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserImportTest {
+
+    private static final Gson GSON = new Gson();
+
+    private final String workspaceId = UUID.randomUUID().toString();
+    private final Map<String, String> workspaceRoles = new LinkedHashMap<>(Map.of("Support", "role-support"));
+    private final Set<String> ignoredRoleIds = new HashSet<>();
+    private final Set<String> checkedDomains = ConcurrentHashMap.newKeySet();
+    private final RoleManager roleManager = (RoleManager) Proxy.newProxyInstance(
+            RoleManager.class.getClassLoader(), new Class<?>[]{RoleManager.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getRoles":
+                        List<ModifiableRole> roles = new ArrayList<>();
+                        workspaceRoles.forEach((name, id) -> roles.add(proxy(ModifiableRole.class,
+                                Map.of("getName", name, "getRoleId", id))));
+                        return roles;
+                    case "isWorkspaceAdmin":
+                        return false;
+                    default:
+                        return null;
+                }
+            });
+    private final Map<String, ModifiableAccount> accounts = new ConcurrentHashMap<>();
+    private final AtomicInteger createdAccounts = new AtomicInteger();
+    private final AccountManager accountManager = (AccountManager) Proxy.newProxyInstance(
+            AccountManager.class.getClassLoader(), new Class<?>[]{AccountManager.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "createAccount":
+                        createdAccounts.incrementAndGet();
+                        ModifiableAccount account = account((String) args[1], (Set<?>) args[2]);
+                        accounts.put((String) args[1], account);
+                        return account;
+                    case "lookupAccount":
+                        return accounts.get((String) args[0]);
+                    default:
+                        return null;
+                }
+            });
+
+    @Test
+    public void rowsAreImportedWithTheirRoles() throws IOException {
+        // When
+        List<Map<?, ?>> lines = run("email,name,roles\njane@example.com,Jane,Support\njohn@example.com,,\n");
+
+        // Then
+        Map<?, ?> summary = lines.get(lines.size() - 1);
+        Assert.assertEquals(Boolean.TRUE, summary.get("done"));
+        Assert.assertEquals(2.0, summary.get("succeeded"));
+        Assert.assertEquals(0.0, summary.get("failed"));
+        Assert.assertEquals(Set.of("jane@example.com", "john@example.com"), checkedDomains);
+    }
+
+    @Test
+    public void roleThatIsNotImportableFailsRow() throws IOException {
+        // Given
+        workspaceRoles.put("Workspace Admin", "role-admin");
+
+        // When
+        List<Map<?, ?>> lines = run("jane@example.com,Jane,Support;Workspace Admin\n");
+
+        // Then
+        Assert.assertEquals("Role Workspace Admin cannot be imported.", lines.get(0).get("error"));
+        Assert.assertEquals(0, createdAccounts.get());
+    }
+
+    @Test
+    public void unsupportedDomainFailsRow() throws IOException {
+        // When
+        List<Map<?, ?>> lines = run("jane@blocked.example,Jane,\njohn@example.com,,\n");
+
+        // Then
+        Assert.assertEquals("Domain is not supported.", lines.get(0).get("error"));
+        Assert.assertEquals(1.0, lines.get(lines.size() - 1).get("succeeded"));
+        Assert.assertEquals(1, createdAccounts.get());
+    }
+
+    @Test
+    public void unknownRoleFailsRow() throws IOException {
+        // When
+        List<Map<?, ?>> lines = run("jane@example.com,Jane,Billing\n");
+
+        // Then
+        Assert.assertEquals("Role Billing does not exist.", lines.get(0).get("error"));
+        Assert.assertEquals(1.0, lines.get(0).get("row"));
+        Assert.assertEquals(1.0, lines.get(lines.size() - 1).get("failed"));
+    }
+
+    @Test
+    public void accountWithoutRequestedRoleFailsRow() throws IOException {
+        // Given the platform leaves out one of the requested roles
+        ignoredRoleIds.add("role-support");
+
+        // When
+        List<Map<?, ?>> lines = run("jane@example.com,Jane,Support\n");
+
+        // Then
+        Assert.assertEquals("jane@example.com", lines.get(0).get("email"));
+        Assert.assertEquals("Account was not given all of its roles.", lines.get(0).get("error"));
+        Assert.assertEquals(0.0, lines.get(lines.size() - 1).get("succeeded"));
+        Assert.assertEquals(1.0, lines.get(lines.size() - 1).get("failed"));
+    }
+
+    @Test
+    public void rowSharingALoginsRunStillGetsItsRoles() throws Exception {
+        // Given a login for the same new email in flight, provisioning the default role only
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long coalescedBefore = AccountCache.INSTANCE.getProvisionings().getCoalescedCount();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<AccountProfile> login = executor.submit(() -> AccountCache.INSTANCE.provision(workspaceId,
+                    "jane@example.com", () -> {
+                        started.countDown();
+                        release.await();
+                        ModifiableAccount account = (ModifiableAccount) accountManager.createAccount("jane",
+                                "jane@example.com", Set.of("role-default"), Map.of());
+                        return AccountProfile.of(account, List.of("role-default"), false);
+                    }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            Future<List<Map<?, ?>>> lines = executor.submit(() -> run("jane@example.com,Jane,Support\n"));
+            while (AccountCache.INSTANCE.getProvisionings().getCoalescedCount() == coalescedBefore) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then the row shared the login's run, and the account was created once and given the row's role
+            List<Map<?, ?>> result = lines.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(1.0, result.get(result.size() - 1).get("succeeded"));
+            Assert.assertEquals(1, createdAccounts.get());
+            Assert.assertEquals(List.of("role-default"), login.get(5, TimeUnit.SECONDS).getRoleIds());
+            Assert.assertTrue(AccountCache.INSTANCE.get(workspaceId, "jane@example.com").getRoleIds()
+                    .containsAll(List.of("role-default", "role-support")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Map<?, ?>> run(String csv) throws IOException {
+        StringWriter output = new StringWriter();
+        new UserImport(accountManager, roleManager, workspaceId, "role-default", Set.of("Support", "Billing"),
+                email -> {
+                    if (email.endsWith("@blocked.example")) {
+                        throw new IllegalArgumentException("Domain is not supported.");
+                    }
+                    checkedDomains.add(email);
+                }, Map.of(), output).run(new StringReader(csv));
+        List<Map<?, ?>> lines = new ArrayList<>();
+        for (String line : output.toString().split("\n")) {
+            lines.add(GSON.fromJson(line, Map.class));
+        }
+        return lines;
+    }
+
+    private ModifiableAccount account(String email, Set<?> roleIds) {
+        Set<Role> roles = ConcurrentHashMap.newKeySet();
+        addRoles(roles, roleIds.toArray());
+        Person person = proxy(Person.class, Map.of("getPersonId", "person-" + email, "getPersonName", email));
+        Map<String, Object> values = Map.of("getAccountId", "account-" + email, "getPerson", person,
+                "getRoles", roles, "getPrimaryEmailAddress", email);
+        return (ModifiableAccount) Proxy.newProxyInstance(ModifiableAccount.class.getClassLoader(),
+                new Class<?>[]{ModifiableAccount.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "addRole":
+                            addRoles(roles, (Object[]) args[0]);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return values.get(method.getName());
+                    }
+                });
+    }
+
+    private void addRoles(Set<Role> roles, Object[] roleIds) {
+        for (Object roleId : roleIds) {
+            if (!ignoredRoleIds.contains(roleId)) {
+                roles.add(proxy(Role.class, Map.of("getRoleId", roleId)));
+            }
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return values.get(method.getName());
+                    }
+                }));
+    }
+
+}
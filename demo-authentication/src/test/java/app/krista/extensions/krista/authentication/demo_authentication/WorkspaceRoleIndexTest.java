@@ -0,0 +1,167 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import app.krista.ksdk.authorization.ModifiableRole;
+import app.krista.ksdk.authorization.RoleManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkspaceRoleIndexTest {
+
+    private final Map<String, String> workspaceRoles = new LinkedHashMap<>();
+    private final AtomicInteger roleLoads = new AtomicInteger();
+    private final AtomicInteger roleCreations = new AtomicInteger();
+    private final RoleManager roleManager = (RoleManager) Proxy.newProxyInstance(
+            RoleManager.class.getClassLoader(), new Class<?>[]{RoleManager.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getRoles":
+                        roleLoads.incrementAndGet();
+                        List<ModifiableRole> roles = new ArrayList<>();
+                        workspaceRoles.forEach((name, id) -> roles.add(role(name, id)));
+                        return roles;
+                    case "createRole":
+                        String id = "role-" + roleCreations.incrementAndGet() + "-" + args[0];
+                        workspaceRoles.put((String) args[0], id);
+                        return role((String) args[0], id);
+                    default:
+                        return null;
+                }
+            });
+
+    @Test
+    public void rolesAreLoadedOnce() {
+        // Given
+        workspaceRoles.put("Admin", "role-admin");
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5));
+
+        // When
+        String first = index.getRoleId(roleManager, "Admin");
+        String second = index.getRoleId(roleManager, "Admin");
+
+        // Then
+        Assert.assertEquals("role-admin", first);
+        Assert.assertEquals("role-admin", second);
+        Assert.assertEquals(1, roleLoads.get());
+    }
+
+    @Test
+    public void missingRoleIsCreatedOnceAndIndexed() {
+        // Given
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5));
+
+        // When
+        String created = index.ensureRole(roleManager, "Krista Client User");
+        String again = index.ensureRole(roleManager, "Krista Client User");
+
+        // Then
+        Assert.assertEquals(created, again);
+        Assert.assertEquals(1, roleCreations.get());
+        Assert.assertEquals(created, index.getRoleId(roleManager, "Krista Client User"));
+    }
+
+    @Test
+    public void invalidatedRoleIsReloaded() {
+        // Given a role that was removed and recreated elsewhere after the index was loaded
+        workspaceRoles.put("Krista Client User", "role-stale");
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5));
+        String stale = index.ensureRole(roleManager, "Krista Client User");
+        workspaceRoles.put("Krista Client User", "role-current");
+
+        // When a call using the cached id failed
+        index.invalidate(stale);
+
+        // Then
+        Assert.assertEquals("role-current", index.ensureRole(roleManager, "Krista Client User"));
+        Assert.assertEquals(2, roleLoads.get());
+        Assert.assertEquals(0, roleCreations.get());
+    }
+
+    @Test
+    public void invalidatedRemovedRoleIsCreatedAgain() {
+        // Given
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5));
+        String stale = index.ensureRole(roleManager, "Krista Client User");
+        workspaceRoles.clear();
+
+        // When
+        index.invalidate(stale);
+
+        // Then
+        String recreated = index.ensureRole(roleManager, "Krista Client User");
+        Assert.assertNotEquals(stale, recreated);
+        Assert.assertEquals(2, roleCreations.get());
+    }
+
+    @Test
+    public void unknownRoleIdKeepsIndex() {
+        // Given
+        workspaceRoles.put("Admin", "role-admin");
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5));
+        index.getRoleId(roleManager, "Admin");
+
+        // When
+        index.invalidate("role-other");
+
+        // Then
+        Assert.assertEquals("role-admin", index.getRoleId(roleManager, "Admin"));
+        Assert.assertEquals(1, roleLoads.get());
+    }
+
+    @Test
+    public void missingRoleTriggersThrottledReload() throws InterruptedException {
+        // Given
+        WorkspaceRoleIndex index = new WorkspaceRoleIndex(Duration.ofMinutes(5), Duration.ofMillis(50));
+        Assert.assertNull(index.getRoleId(roleManager, "Support"));
+        workspaceRoles.put("Support", "role-support");
+
+        // When
+        String beforeInterval = index.getRoleId(roleManager, "Support");
+        Thread.sleep(100);
+        String afterInterval = index.getRoleId(roleManager, "Support");
+
+        // Then
+        Assert.assertNull(beforeInterval);
+        Assert.assertEquals("role-support", afterInterval);
+        Assert.assertEquals(2, roleLoads.get());
+    }
+
+    private static ModifiableRole role(String name, String id) {
+        return (ModifiableRole) Proxy.newProxyInstance(ModifiableRole.class.getClassLoader(),
+                new Class<?>[]{ModifiableRole.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                            return name;
+                        case "getRoleId":
+                            return id;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+}
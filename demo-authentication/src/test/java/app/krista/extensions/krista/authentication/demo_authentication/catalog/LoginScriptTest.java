@@ -0,0 +1,92 @@
+/*
+ * Demo Authentication Extension for Krista
+ * Copyright (C) 2025 Krista Software
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>. 
+ */
+
+package app.krista.extensions.krista.authentication.demo_authentication.catalog;
+
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoginScriptTest {
+
+    private static final String ORIGINAL_SCRIPT = "<script>\n" +
+            "    function prepareUserInterfaceClient(predicate, args) {\n" +
+            "      predicate(args);\n" +
+            "    }\n" +
+            "    function updateLoginText(ref, data) {\n" +
+            "      ref.loggedUserText.text(data.email);\n" +
+            "    }\n" +
+            "    const template = document.getElementById(\"template-form\");\n" +
+            "    const templateClone = template.content.cloneNode(true);\n" +
+            "    document.getElementById(\"__hosted__container__\").appendChild(templateClone);\n" +
+            "    $(document).ready(function () {\n" +
+            "      $(\"#form\").prepend(`<input name=\"email\" type=\"text\" id=\"email\" " +
+            "placeholder=\"Enter email\" /><br />`);\n" +
+            "    });\n" +
+            "  </script>";
+
+    @Test
+    public void noAttributesRenderTheOriginalScript() {
+        // Then
+        Assert.assertEquals(ORIGINAL_SCRIPT, LoginScript.forAttributes(Map.of()).getScript());
+        Assert.assertEquals(ORIGINAL_SCRIPT, LoginScript.forAttributes(null).getScript());
+        Assert.assertEquals(ORIGINAL_SCRIPT, LoginScript.render("", "", "").getScript());
+    }
+
+    @Test
+    public void placeholderIsEscaped() {
+        // When
+        String script = LoginScript.render("email:<b>\"Mail\"</b>, code:`${alert(1)}`\\", "", "").getScript();
+
+        // Then
+        Assert.assertTrue(script, script.contains("<input name=\"email\" type=\"text\" id=\"email\" "
+                + "placeholder=\"&lt;b&gt;&quot;Mail&quot;&lt;/b&gt;\" />"));
+        Assert.assertTrue(script, script.contains(
+                "<input name=\"code\" type=\"text\" id=\"code\" placeholder=\"&#96;&#36;{alert(1)}&#96;&#92;\" />"));
+    }
+
+    @Test
+    public void roleHintIsEscaped() {
+        // When
+        String script = LoginScript.render("", "You join as <{{defaultRole}}>'s `$`", "R&D").getScript();
+
+        // Then
+        Assert.assertTrue(script, script.contains("<small class=\"krista-role-hint\">"
+                + "You join as &lt;R&amp;D&gt;&#39;s &#96;&#36;&#96;</small><br />"));
+    }
+
+    @Test
+    public void invalidFieldIsLeftOut() {
+        // When
+        String script = LoginScript.render("bad name:Bad, phone:Phone, \"onfocus=x:X", "", "").getScript();
+
+        // Then
+        Assert.assertTrue(script, script.contains("placeholder=\"Enter email\" /><br /><input name=\"phone\" type="
+                + "\"text\" id=\"phone\" placeholder=\"Phone\" /><br />`"));
+        Assert.assertFalse(script, script.contains("Bad"));
+        Assert.assertFalse(script, script.contains("onfocus"));
+    }
+
+    @Test
+    public void roleHintWithUnknownPlaceholderIsLeftOut() {
+        // Then
+        Assert.assertEquals(ORIGINAL_SCRIPT, LoginScript.render("", "Ask {{admin}} for access", "").getScript());
+        Assert.assertEquals(ORIGINAL_SCRIPT, LoginScript.render("", "Empty {{ }} placeholder", "").getScript());
+    }
+
+}